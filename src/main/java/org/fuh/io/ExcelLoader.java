@@ -18,6 +18,11 @@ public class ExcelLoader {
         public List<CategoryBlock> categoryBlocks = new ArrayList<>();
         public Map<String, String> exclusivityMap = new HashMap<>();
         public Set<String> allInstitutions = new HashSet<>(); // Conjunto maestro de instituciones
+
+        // Paso de compilación: interna canchas/instituciones/categorías a enteros densos
+        public CompiledInstance compile() {
+            return CompiledInstance.compile(validSlots, matchInfos, courtConfigs, priorities, categoryBlocks);
+        }
     }
 
     private static class CourtRowData {
@@ -0,0 +1,246 @@
+package org.fuh.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versión "compilada" de la instancia: canchas, instituciones y categorías internadas a
+ * enteros densos y tablas primitivas planas para el camino caliente del algoritmo.
+ * Los arreglos devueltos por los getters son compartidos y de sólo lectura.
+ *
+ * Cada opción de partido se codifica como una celda: cancha * hourSpan + (hora - minHour).
+ */
+public class CompiledInstance {
+
+    // --- Nombres originales (para decodificar y reportar) ---
+    private final String[] courtNames;
+    private final String[] institutionNames;
+    private final String[] categoryNames;
+
+    // --- Canchas y horas ---
+    private final int numberOfCourts;
+    private final int constrainedCourts;      // canchas con CourtConfig (orden de courtConfigs.values())
+    private final int[] courtMaxContinuous;   // por cancha con restricción
+    private final int minHour;
+    private final int hourSpan;
+
+    // --- Partidos ---
+    private final int[][] validSlots;         // [partido][opción] -> celda
+    private final int[][] sortedCells;        // [partido] celdas válidas ordenadas (búsqueda binaria)
+    private final int[][] sortedOptions;      // [partido] opción de cada celda de sortedCells
+    private final int[] matchHome;            // partido -> id de institución local
+    private final int[] matchAway;            // partido -> id de institución visitante
+    private final int[] matchCategory;        // partido -> id de categoría
+
+    // --- Bloques de categorías ---
+    private final boolean[][] sameBlock;      // [catA][catB]
+    private final int[] categoryClass;        // categoría -> clase, o null si la relación no es transitiva
+    private final int numberOfCategoryClasses;
+
+    // --- Prioridades ---
+    private final int[] priorityInstitution;
+    private final int[] priorityTargetCourt;  // -1 si la cancha no existe en la instancia
+    private final double[] priorityMinPercentage;
+    private final int[][] priorityMatches;    // regla -> partidos donde juega su institución
+
+    private CompiledInstance(List<List<Slot>> validSlotsPerMatch,
+                             List<MatchInfo> matchInfos,
+                             Map<String, CourtConfig> courtConfigs,
+                             List<InstitutionPriority> priorities,
+                             List<CategoryBlock> categoryBlocks) {
+
+        int n = validSlotsPerMatch.size();
+
+        // 1. Canchas: primero las configuradas (define el índice de su restricción)
+        Map<String, Integer> courtIds = new HashMap<>();
+        this.courtMaxContinuous = new int[courtConfigs.size()];
+        for (CourtConfig court : courtConfigs.values()) {
+            courtMaxContinuous[courtIds.size()] = court.getMaxContinuousHours();
+            courtIds.put(court.getId(), courtIds.size());
+        }
+        this.constrainedCourts = courtIds.size();
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (List<Slot> slots : validSlotsPerMatch) {
+            for (Slot s : slots) {
+                courtIds.putIfAbsent(s.getCourtId(), courtIds.size()); // canchas sin configuración
+                min = Math.min(min, s.getTimeSlotId());
+                max = Math.max(max, s.getTimeSlotId());
+            }
+        }
+        if (min > max) { min = 0; max = 0; }
+        this.minHour = min;
+        this.hourSpan = max - min + 1;
+        this.numberOfCourts = courtIds.size();
+        this.courtNames = names(courtIds);
+
+        this.validSlots = new int[n][];
+        for (int i = 0; i < n; i++) {
+            List<Slot> slots = validSlotsPerMatch.get(i);
+            validSlots[i] = new int[slots.size()];
+            for (int k = 0; k < slots.size(); k++) {
+                Slot s = slots.get(k);
+                validSlots[i][k] = courtIds.get(s.getCourtId()) * hourSpan + (s.getTimeSlotId() - minHour);
+            }
+        }
+
+        // Índice inverso celda -> opción por partido (pares celda/opción empaquetados y ordenados)
+        this.sortedCells = new int[n][];
+        this.sortedOptions = new int[n][];
+        for (int i = 0; i < n; i++) {
+            long[] packed = new long[validSlots[i].length];
+            for (int k = 0; k < packed.length; k++) packed[k] = ((long) validSlots[i][k] << 32) | k;
+            Arrays.sort(packed);
+            sortedCells[i] = new int[packed.length];
+            sortedOptions[i] = new int[packed.length];
+            for (int k = 0; k < packed.length; k++) {
+                sortedCells[i][k] = (int) (packed[k] >>> 32);
+                sortedOptions[i][k] = (int) packed[k];
+            }
+        }
+
+        // 2. Instituciones y categorías
+        Map<String, Integer> institutionIds = new HashMap<>();
+        Map<String, Integer> categoryIds = new HashMap<>();
+        this.matchHome = new int[n];
+        this.matchAway = new int[n];
+        this.matchCategory = new int[n];
+        for (int i = 0; i < n; i++) {
+            MatchInfo info = matchInfos.get(i);
+            matchHome[i] = institutionIds.computeIfAbsent(info.getHomeInstitution(), k -> institutionIds.size());
+            matchAway[i] = institutionIds.computeIfAbsent(info.getAwayInstitution(), k -> institutionIds.size());
+            matchCategory[i] = categoryIds.computeIfAbsent(info.getCategory(), k -> categoryIds.size());
+        }
+
+        // 3. Prioridades (las instituciones sin partidos reciben un id propio)
+        int rules = priorities.size();
+        this.priorityInstitution = new int[rules];
+        this.priorityTargetCourt = new int[rules];
+        this.priorityMinPercentage = new double[rules];
+        for (int r = 0; r < rules; r++) {
+            InstitutionPriority rule = priorities.get(r);
+            priorityInstitution[r] = institutionIds.computeIfAbsent(rule.getInstitution(), k -> institutionIds.size());
+            Integer target = courtIds.get(rule.getTargetCourtId());
+            priorityTargetCourt[r] = (target == null) ? -1 : target;
+            priorityMinPercentage[r] = rule.getMinPercentage();
+        }
+        this.priorityMatches = new int[rules][];
+        for (int r = 0; r < rules; r++) {
+            int institution = priorityInstitution[r];
+            int total = 0;
+            for (int i = 0; i < n; i++) {
+                if (matchHome[i] == institution || matchAway[i] == institution) total++;
+            }
+            priorityMatches[r] = new int[total];
+            total = 0;
+            for (int i = 0; i < n; i++) {
+                if (matchHome[i] == institution || matchAway[i] == institution) priorityMatches[r][total++] = i;
+            }
+        }
+        this.institutionNames = names(institutionIds);
+        this.categoryNames = names(categoryIds);
+
+        // 4. Matriz de bloques (misma categoría o ambas dentro de un mismo bloque)
+        int k = categoryNames.length;
+        this.sameBlock = new boolean[k][k];
+        for (int a = 0; a < k; a++) {
+            for (int b = 0; b < k; b++) {
+                boolean same = (a == b);
+                for (CategoryBlock block : categoryBlocks) {
+                    if (same) break;
+                    same = block.match(categoryNames[a], categoryNames[b]);
+                }
+                sameBlock[a][b] = same;
+            }
+        }
+
+        // 5. Clases de bloque: válidas sólo si la relación es transitiva
+        int[] classes = new int[k];
+        int count = 0;
+        Arrays.fill(classes, -1);
+        for (int a = 0; a < k; a++) {
+            if (classes[a] != -1) continue;
+            for (int b = a; b < k; b++) {
+                if (sameBlock[a][b]) classes[b] = count;
+            }
+            count++;
+        }
+        boolean transitive = true;
+        for (int a = 0; a < k && transitive; a++) {
+            for (int b = 0; b < k; b++) {
+                if (sameBlock[a][b] != (classes[a] == classes[b])) { transitive = false; break; }
+            }
+        }
+        this.categoryClass = transitive ? classes : null;
+        this.numberOfCategoryClasses = count;
+    }
+
+    /** Paso de compilación: se ejecuta una vez, después de ExcelLoader.loadFromExcel. */
+    public static CompiledInstance compile(List<List<Slot>> validSlotsPerMatch,
+                                           List<MatchInfo> matchInfos,
+                                           Map<String, CourtConfig> courtConfigs,
+                                           List<InstitutionPriority> priorities,
+                                           List<CategoryBlock> categoryBlocks) {
+        return new CompiledInstance(validSlotsPerMatch, matchInfos, courtConfigs, priorities, categoryBlocks);
+    }
+
+    private static String[] names(Map<String, Integer> ids) {
+        String[] names = new String[ids.size()];
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) names[entry.getValue()] = entry.getKey();
+        return names;
+    }
+
+    // =========================================================
+    // CELDAS
+    // =========================================================
+
+    public int courtOf(int cell) { return cell / hourSpan; }
+    public int hourOf(int cell) { return cell % hourSpan + minHour; }
+    public int toCell(int court, int hour) { return court * hourSpan + (hour - minHour); }
+
+    /** Celda asignada al partido para el índice de opción dado. */
+    public int cellOf(int match, int slotIndex) { return validSlots[match][slotIndex]; }
+
+    /** Índice de opción del partido para la celda, o -1 si la celda no es válida para él. */
+    public int optionOf(int match, int cell) {
+        int position = Arrays.binarySearch(sortedCells[match], cell);
+        return (position >= 0) ? sortedOptions[match][position] : -1;
+    }
+
+    public boolean sameBlock(int matchA, int matchB) {
+        return sameBlock[matchCategory[matchA]][matchCategory[matchB]];
+    }
+
+    // =========================================================
+    // GETTERS
+    // =========================================================
+
+    public int getNumberOfMatches() { return validSlots.length; }
+    public int getNumberOfCourts() { return numberOfCourts; }
+    public int getConstrainedCourts() { return constrainedCourts; }
+    public int getNumberOfCells() { return numberOfCourts * hourSpan; }
+    public int getNumberOfInstitutions() { return institutionNames.length; }
+    public int getNumberOfCategories() { return categoryNames.length; }
+    public int getNumberOfPriorities() { return priorityInstitution.length; }
+    public int getMinHour() { return minHour; }
+    public int getHourSpan() { return hourSpan; }
+
+    public int[][] getValidSlots() { return validSlots; }
+    public int[] getCourtMaxContinuous() { return courtMaxContinuous; }
+    public int[] getMatchHome() { return matchHome; }
+    public int[] getMatchAway() { return matchAway; }
+    public int[] getMatchCategory() { return matchCategory; }
+    public int[] getCategoryClass() { return categoryClass; }
+    public int getNumberOfCategoryClasses() { return numberOfCategoryClasses; }
+    public int[] getPriorityInstitution() { return priorityInstitution; }
+    public int[] getPriorityTargetCourt() { return priorityTargetCourt; }
+    public double[] getPriorityMinPercentage() { return priorityMinPercentage; }
+    public int[][] getPriorityMatches() { return priorityMatches; }
+
+    public String getCourtName(int court) { return courtNames[court]; }
+    public String getInstitutionName(int institution) { return institutionNames[institution]; }
+    public String getCategoryName(int category) { return categoryNames[category]; }
+}
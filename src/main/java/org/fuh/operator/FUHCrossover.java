@@ -1,28 +1,36 @@
 package org.fuh.operator;
 
-import org.fuh.model.Slot;
+import org.fuh.model.CompiledInstance;
+import org.fuh.problem.FUHSolution;
 import org.uma.jmetal.operator.crossover.CrossoverOperator;
 import org.uma.jmetal.solution.integersolution.IntegerSolution;
 import org.uma.jmetal.util.errorchecking.Check;
 import org.uma.jmetal.util.pseudorandom.JMetalRandom;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class FUHCrossover implements CrossoverOperator<IntegerSolution> {
     
     private final double crossoverProbability;
-    private final Slot[][] preCalculatedAssignments; 
+    private final int[][] slotCourts; // [partido][opción] -> id de cancha
 
-    public FUHCrossover(double crossoverProbability, List<List<Slot>> validSlotsPerMatch) {
+    // Buffers reutilizables (un operador por hilo): canchas presentes y su orden de aparición
+    private final long[] courtPresent;
+    private final int[] assignedCourts;
+
+    public FUHCrossover(double crossoverProbability, CompiledInstance instance) {
         this.crossoverProbability = crossoverProbability;
+        this.courtPresent = new long[(instance.getNumberOfCourts() + Long.SIZE - 1) / Long.SIZE];
+        this.assignedCourts = new int[instance.getNumberOfCourts()];
         
-        // Creamos un mapa 2D para la decodificación rápida de índices a Slots
-        this.preCalculatedAssignments = new Slot[validSlotsPerMatch.size()][];
-        for (int i = 0; i < validSlotsPerMatch.size(); i++) {
-            preCalculatedAssignments[i] = validSlotsPerMatch.get(i).toArray(new Slot[0]);
+        // Creamos un mapa 2D para la decodificación rápida de índices a canchas
+        int[][] validSlots = instance.getValidSlots();
+        this.slotCourts = new int[validSlots.length][];
+        for (int i = 0; i < validSlots.length; i++) {
+            slotCourts[i] = new int[validSlots[i].length];
+            for (int k = 0; k < validSlots[i].length; k++) slotCourts[i][k] = instance.courtOf(validSlots[i][k]);
         }
     }
 
@@ -54,36 +62,35 @@ public class FUHCrossover implements CrossoverOperator<IntegerSolution> {
         IntegerSolution parent2 = parents.get(1);
 
         if (JMetalRandom.getInstance().nextDouble() < crossoverProbability) {
+            int[] genes1 = FUHSolution.genesOf(parent1);
+            int[] genes2 = FUHSolution.genesOf(parent2);
             
-            // 1. Obtener la lista de canchas asignadas en el Padre 1
-            List<String> assignedCourts = IntStream.range(0, parent1.variables().size())
-                .mapToObj(i -> preCalculatedAssignments[i][parent1.variables().get(i)].getCourtId())
-                .distinct() 
-                .collect(Collectors.toList());
+            // 1. Canchas asignadas en el Padre 1, en orden de primera aparición
+            int courts = collectAssignedCourts(genes1);
 
-            if (assignedCourts.isEmpty()) return parents;
+            if (courts == 0) return copiesOf(parent1, parent2);
 
             // 2. Elegir una cancha de corte al azar
-            int randomCourtIndex = JMetalRandom.getInstance().nextInt(0, assignedCourts.size() - 1);
-            String pivotCourt = assignedCourts.get(randomCourtIndex);
+            int randomCourtIndex = JMetalRandom.getInstance().nextInt(0, courts - 1);
+            int pivotCourt = assignedCourts[randomCourtIndex];
 
             // 3. Crear los hijos como copias de los padres
             IntegerSolution child1 = (IntegerSolution) parent1.copy();
             IntegerSolution child2 = (IntegerSolution) parent2.copy();
 
             // 4. Aplicar Cruce por Cancha
-            for (int i = 0; i < parent1.variables().size(); i++) {
-                String matchCourt1 = preCalculatedAssignments[i][parent1.variables().get(i)].getCourtId();
-                String matchCourt2 = preCalculatedAssignments[i][parent2.variables().get(i)].getCourtId();
+            for (int i = 0; i < genes1.length; i++) {
+                int matchCourt1 = slotCourts[i][genes1[i]];
+                int matchCourt2 = slotCourts[i][genes2[i]];
 
                 // Intercambio 1: El Hijo 1 hereda del Padre 2 la asignación de la cancha pivote
-                if (matchCourt2.equals(pivotCourt)) {
-                    child1.variables().set(i, parent2.variables().get(i));
+                if (matchCourt2 == pivotCourt) {
+                    setGene(child1, i, genes2[i]);
                 }
                 
                 // Intercambio 2: El Hijo 2 hereda del Padre 1 la asignación de la cancha pivote
-                if (matchCourt1.equals(pivotCourt)) {
-                    child2.variables().set(i, parent1.variables().get(i));
+                if (matchCourt1 == pivotCourt) {
+                    setGene(child2, i, genes1[i]);
                 }
             }
             
@@ -93,6 +100,35 @@ public class FUHCrossover implements CrossoverOperator<IntegerSolution> {
             return result;
         }
 
-        return parents;
+        return copiesOf(parent1, parent2);
+    }
+
+    // Equivale al distinct() sobre las canchas de cada gen: mismo orden, mismo sorteo de pivote
+    private int collectAssignedCourts(int[] genes) {
+        Arrays.fill(courtPresent, 0L);
+        int count = 0;
+        for (int i = 0; i < genes.length; i++) {
+            int court = slotCourts[i][genes[i]];
+            long bit = 1L << court;                 // el desplazamiento usa court % 64
+            if ((courtPresent[court >>> 6] & bit) == 0) {
+                courtPresent[court >>> 6] |= bit;
+                assignedCourts[count++] = court;
+            }
+        }
+        return count;
+    }
+
+    private static void setGene(IntegerSolution solution, int match, int slotIndex) {
+        if (solution instanceof FUHSolution) ((FUHSolution) solution).setGene(match, slotIndex);
+        else solution.variables().set(match, slotIndex);
+    }
+
+    // Los hijos nunca son los mismos objetos de la población: la mutación los modifica
+    // en el lugar y pueden evaluarse en paralelo
+    private static List<IntegerSolution> copiesOf(IntegerSolution parent1, IntegerSolution parent2) {
+        List<IntegerSolution> result = new ArrayList<>();
+        result.add((IntegerSolution) parent1.copy());
+        result.add((IntegerSolution) parent2.copy());
+        return result;
     }
 }
\ No newline at end of file
@@ -1,20 +1,34 @@
 package org.fuh.operator;
 
-import org.fuh.model.Slot;
+import org.fuh.model.CompiledInstance;
+import org.fuh.problem.FUHSolution;
 import org.uma.jmetal.operator.mutation.MutationOperator;
 import org.uma.jmetal.solution.integersolution.IntegerSolution;
 import org.uma.jmetal.util.pseudorandom.JMetalRandom;
 
-import java.util.List;
+import java.util.Arrays;
 
 public class FUHMutation implements MutationOperator<IntegerSolution> {
-    
+
     private final double mutationProbability;
-    private final List<List<Slot>> validSlotsPerMatch;
+    private final int[][] validSlots;
+
+    // Modo salto geométrico: se sortea la distancia al próximo gen mutado en vez de un
+    // nextDouble() por gen. Misma distribución (cada gen muta con probabilidad p, independiente).
+    private boolean geometricSkip = false;
+    private final GeometricSkip skip;
 
-    public FUHMutation(double mutationProbability, List<List<Slot>> validSlotsPerMatch) {
+    // Modo ocupación: el nuevo slot se elige entre los libres (ocupación por celda de la solución)
+    private static final int FREE_SLOT_ATTEMPTS = 8;
+    private boolean occupancyAware = false;
+    private final int[] cellCount;            // buffer reutilizable (un operador por hilo)
+    private boolean occupancyBuilt = false;
+
+    public FUHMutation(double mutationProbability, CompiledInstance instance) {
         this.mutationProbability = mutationProbability;
-        this.validSlotsPerMatch = validSlotsPerMatch;
+        this.validSlots = instance.getValidSlots();
+        this.skip = new GeometricSkip(mutationProbability);
+        this.cellCount = new int[instance.getNumberOfCells()];
     }
 
     // FIX CRÍTICO 1: Método obligatorio sin 'get'
@@ -23,26 +37,96 @@ public class FUHMutation implements MutationOperator<IntegerSolution> {
         return mutationProbability;
     }
 
+    /** Activa el modo salto geométrico: las llamadas al RNG escalan con las mutaciones, no con los genes. */
+    public void setGeometricSkip(boolean enabled) {
+        this.geometricSkip = enabled;
+    }
+
+    /**
+     * Activa la mutación consciente de la ocupación: el gen mutado va a un slot válido que
+     * ningún otro partido ocupa (uniforme entre los libres). Sólo si no hay ninguno libre
+     * se usa el sorteo uniforme original.
+     */
+    public void setOccupancyAware(boolean enabled) {
+        this.occupancyAware = enabled;
+    }
+
 
     @Override
     public IntegerSolution execute(IntegerSolution solution) {
-        for (int i = 0; i < solution.variables().size(); i++) {
-            if (JMetalRandom.getInstance().nextDouble() < mutationProbability) {
-                
-                // 1. Obtener la lista de opciones válidas para este partido (match 'i')
-                List<Slot> validOptions = validSlotsPerMatch.get(i);
-                
-                int maxIndex = validOptions.size() - 1; 
-
-                if (maxIndex >= 0) {
-                    // 2. Generar un nuevo índice de slot VÁLIDO al azar dentro de los límites
-                    int newIndex = JMetalRandom.getInstance().nextInt(0, maxIndex);
-                    
-                    // 3. Aplicar la mutación, el nuevo valor sigue siendo factible
-                    solution.variables().set(i, newIndex);
+        // Con una FUHSolution se escribe directo en su arreglo (sin boxing)
+        int[] genes = (solution instanceof FUHSolution) ? ((FUHSolution) solution).getGenes() : null;
+        int size = solution.variables().size();
+        occupancyBuilt = false;
+
+        if (geometricSkip) {
+            for (int i = skip.first(size); i < size; i = skip.next(i, size)) mutateGene(solution, genes, i);
+        } else {
+            for (int i = 0; i < size; i++) {
+                if (JMetalRandom.getInstance().nextDouble() < mutationProbability) {
+                    mutateGene(solution, genes, i);
                 }
             }
         }
+
+        if (occupancyBuilt) Arrays.fill(cellCount, 0);
         return solution;
     }
-}
\ No newline at end of file
+
+    private void mutateGene(IntegerSolution solution, int[] genes, int i) {
+        // 1. Obtener la lista de opciones válidas para este partido (match 'i')
+        int[] validOptions = validSlots[i];
+
+        int maxIndex = validOptions.length - 1;
+
+        if (maxIndex >= 0) {
+            // 2. Generar un nuevo índice de slot VÁLIDO al azar dentro de los límites
+            int newIndex = occupancyAware
+                    ? freeSlotIndex(solution, genes, i)
+                    : JMetalRandom.getInstance().nextInt(0, maxIndex);
+
+            // 3. Aplicar la mutación, el nuevo valor sigue siendo factible
+            if (genes != null) genes[i] = newIndex;
+            else solution.variables().set(i, newIndex);
+        }
+    }
+
+    // Índice de un slot libre (sin contar al propio partido); uniforme si no queda ninguno
+    private int freeSlotIndex(IntegerSolution solution, int[] genes, int match) {
+        if (!occupancyBuilt) {
+            // La ocupación se arma recién en la primera mutación: sin mutaciones no cuesta nada
+            for (int m = 0; m < validSlots.length; m++) cellCount[validSlots[m][gene(solution, genes, m)]]++;
+            occupancyBuilt = true;
+        }
+        int[] options = validSlots[match];
+        cellCount[options[gene(solution, genes, match)]]--;
+
+        // 1. Rechazo: con pocos slots ocupados acierta en O(1) esperado
+        int chosen = -1;
+        for (int attempt = 0; attempt < FREE_SLOT_ATTEMPTS && chosen < 0; attempt++) {
+            int candidate = JMetalRandom.getInstance().nextInt(0, options.length - 1);
+            if (cellCount[options[candidate]] == 0) chosen = candidate;
+        }
+
+        // 2. Recorrido exacto: k-ésimo slot libre con k uniforme
+        if (chosen < 0) {
+            int free = 0;
+            for (int cell : options) if (cellCount[cell] == 0) free++;
+            if (free > 0) {
+                int k = JMetalRandom.getInstance().nextInt(0, free - 1);
+                for (int option = 0; chosen < 0; option++) {
+                    if (cellCount[options[option]] == 0 && k-- == 0) chosen = option;
+                }
+            } else {
+                chosen = JMetalRandom.getInstance().nextInt(0, options.length - 1);
+            }
+        }
+
+        cellCount[options[chosen]]++;
+        return chosen;
+    }
+
+    private static int gene(IntegerSolution solution, int[] genes, int match) {
+        return (genes != null) ? genes[match] : solution.variables().get(match);
+    }
+}
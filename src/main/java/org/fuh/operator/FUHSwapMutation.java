@@ -0,0 +1,86 @@
+package org.fuh.operator;
+
+import org.fuh.model.CompiledInstance;
+import org.fuh.problem.FUHSolution;
+import org.uma.jmetal.operator.mutation.MutationOperator;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+import java.util.Arrays;
+
+/**
+ * Mutación por intercambio: el partido elegido pasa a uno de sus slots válidos que ocupa
+ * otro partido, y éste toma el slot que quedó libre. Sólo se aplica si ambas asignaciones
+ * nuevas están dentro de las opciones válidas de cada partido, así que la cantidad de
+ * slots ocupados no cambia. Con evaluación incremental cada intercambio re-puntúa dos genes.
+ */
+public class FUHSwapMutation implements MutationOperator<IntegerSolution> {
+
+    private static final int PARTNER_ATTEMPTS = 4;
+
+    private final double swapProbability;
+    private final CompiledInstance instance;
+    private final int[][] validSlots;
+    private final GeometricSkip skip;
+
+    // Índice inverso celda -> partido (buffer reutilizable, un operador por hilo)
+    private final int[] cellMatch;
+
+    public FUHSwapMutation(double swapProbability, CompiledInstance instance) {
+        this.swapProbability = swapProbability;
+        this.instance = instance;
+        this.validSlots = instance.getValidSlots();
+        this.skip = new GeometricSkip(swapProbability);
+        this.cellMatch = new int[instance.getNumberOfCells()];
+    }
+
+    @Override
+    public double mutationProbability() {
+        return swapProbability;
+    }
+
+    /** Cada partido inicia un intercambio con probabilidad swapProbability. */
+    @Override
+    public IntegerSolution execute(IntegerSolution solution) {
+        int[] genes = FUHSolution.genesOf(solution);
+        int size = genes.length;
+        boolean indexed = false;
+
+        for (int i = skip.first(size); i < size; i = skip.next(i, size)) {
+            if (!indexed) {
+                Arrays.fill(cellMatch, -1);
+                for (int m = 0; m < size; m++) cellMatch[validSlots[m][genes[m]]] = m;
+                indexed = true;
+            }
+            trySwap(solution, genes, i);
+        }
+        return solution;
+    }
+
+    private void trySwap(IntegerSolution solution, int[] genes, int match) {
+        int[] options = validSlots[match];
+        int ownCell = options[genes[match]];
+
+        for (int attempt = 0; attempt < PARTNER_ATTEMPTS; attempt++) {
+            int option = JMetalRandom.getInstance().nextInt(0, options.length - 1);
+            int targetCell = options[option];
+            int partner = cellMatch[targetCell];
+            if (partner < 0 || partner == match || targetCell == ownCell) continue;
+
+            int partnerOption = instance.optionOf(partner, ownCell);
+            if (partnerOption < 0) continue;
+
+            setGene(solution, genes, match, option);
+            setGene(solution, genes, partner, partnerOption);
+            cellMatch[targetCell] = match;
+            cellMatch[ownCell] = partner;
+            return;
+        }
+    }
+
+    // genes es el arreglo de la FUHSolution o una copia: se mantienen ambos al día
+    private static void setGene(IntegerSolution solution, int[] genes, int match, int slotIndex) {
+        genes[match] = slotIndex;
+        if (!(solution instanceof FUHSolution)) solution.variables().set(match, slotIndex);
+    }
+}
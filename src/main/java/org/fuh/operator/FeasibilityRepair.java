@@ -0,0 +1,206 @@
+package org.fuh.operator;
+
+import org.fuh.model.CompiledInstance;
+import org.fuh.problem.FUHSolution;
+import org.uma.jmetal.operator.mutation.MutationOperator;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Etapa de reparación entre la variación y la evaluación (se encadena como última mutación).
+ * 1. Superposiciones: cada partido que comparte celda (salvo el primero) pasa a un slot
+ *    válido libre que no forme una racha más larga que el máximo de su cancha.
+ * 2. Rachas: en cada cancha con restricción, el partido que excede el máximo de horas
+ *    continuas se mueve a un slot libre donde no forme una racha demasiado larga.
+ * Todo es greedy y usa tablas de ocupación por celda: O(n + celdas) por solución.
+ * Sacar un partido repetido puede unir dos rachas y mover un partido puede sacarlo de la cancha
+ * objetivo de su institución, así que si al final la violación total (superposiciones, rachas y
+ * cuotas de prioridad, con las mismas fórmulas que la evaluación) no bajó, se deshacen los
+ * movimientos. Cuenta los aplicados (getRepairs).
+ */
+public class FeasibilityRepair implements MutationOperator<IntegerSolution> {
+
+    private final int[][] validSlots;
+    private final int constrainedCourts;
+    private final int hourSpan;
+    private final int[] courtMaxContinuous;
+    private final int[][] priorityMatches;
+    private final int[] priorityTargetCourt;
+    private final double[] priorityMin;
+
+    // Buffers reutilizables (un operador por hilo)
+    private final int[] cellCount;
+    private final int[] cellMatch;   // un ocupante por celda, -1 si no se conoce
+    private int[] original = new int[0];
+
+    private final AtomicLong repairs = new AtomicLong();
+
+    public FeasibilityRepair(CompiledInstance instance) {
+        this.validSlots = instance.getValidSlots();
+        this.constrainedCourts = instance.getConstrainedCourts();
+        this.hourSpan = instance.getHourSpan();
+        this.courtMaxContinuous = instance.getCourtMaxContinuous();
+        this.priorityMatches = instance.getPriorityMatches();
+        this.priorityTargetCourt = instance.getPriorityTargetCourt();
+        this.priorityMin = instance.getPriorityMinPercentage();
+        this.cellCount = new int[instance.getNumberOfCells()];
+        this.cellMatch = new int[instance.getNumberOfCells()];
+    }
+
+    /** La reparación se aplica a todas las soluciones. */
+    @Override
+    public double mutationProbability() {
+        return 1.0;
+    }
+
+    /** Movimientos de reparación aplicados desde que se creó el operador. */
+    public long getRepairs() {
+        return repairs.get();
+    }
+
+    @Override
+    public IntegerSolution execute(IntegerSolution solution) {
+        int[] genes = FUHSolution.genesOf(solution);
+        if (original.length != genes.length) original = new int[genes.length];
+        System.arraycopy(genes, 0, original, 0, genes.length);
+        Arrays.fill(cellCount, 0);
+        Arrays.fill(cellMatch, -1);
+        for (int m = 0; m < genes.length; m++) {
+            int cell = validSlots[m][genes[m]];
+            cellCount[cell]++;
+            if (cellMatch[cell] < 0) cellMatch[cell] = m;
+        }
+
+        double before = violation(genes);
+        long applied = 0;
+
+        // 1. Superposiciones: el primer ocupante se queda, el resto busca un slot libre
+        for (int m = 0; m < genes.length; m++) {
+            int cell = validSlots[m][genes[m]];
+            if (cellCount[cell] > 1 && cellMatch[cell] != m) {
+                int option = freeOption(m);
+                if (option >= 0) { move(solution, genes, m, option); applied++; }
+            }
+        }
+
+        // 2. Rachas: misma semántica que la restricción (una hora repetida reinicia la racha en 1)
+        for (int court = 0; court < constrainedCourts; court++) {
+            int run = 0;
+            for (int h = 0; h < hourSpan; h++) {
+                int cell = court * hourSpan + h;
+                if (cellCount[cell] == 0) { run = 0; continue; }
+                run++;
+                if (run > courtMaxContinuous[court] && cellCount[cell] == 1 && cellMatch[cell] >= 0) {
+                    int option = freeOption(cellMatch[cell]);
+                    if (option >= 0) {
+                        move(solution, genes, cellMatch[cell], option);
+                        applied++;
+                        run = 0;
+                        continue;
+                    }
+                }
+                if (cellCount[cell] > 1) run = 1;
+            }
+        }
+
+        if (applied > 0 && violation(genes) >= before) {
+            // No mejoró: se vuelve a la solución original
+            System.arraycopy(original, 0, genes, 0, genes.length);
+            if (!(solution instanceof FUHSolution)) {
+                for (int m = 0; m < genes.length; m++) solution.variables().set(m, genes[m]);
+            }
+            applied = 0;
+        }
+        if (applied > 0) repairs.addAndGet(applied);
+        return solution;
+    }
+
+    // Violación total tal como la suma el ManualComparator: superposiciones (pares en la misma celda),
+    // exceso de racha por cancha y déficit de cada cuota de prioridad, en el orden de las restricciones
+    private double violation(int[] genes) {
+        double total = 0.0;
+        long overlaps = 0;
+        for (int count : cellCount) overlaps += (long) count * (count - 1) / 2;
+        total += overlaps;
+
+        for (int court = 0; court < constrainedCourts; court++) {
+            int matches = 0;
+            int run = 0;
+            int best = 0;
+            for (int h = 0; h < hourSpan; h++) {
+                int count = cellCount[court * hourSpan + h];
+                matches += count;
+                if (count == 0) { run = 0; continue; }
+                run++;
+                best = Math.max(best, run);
+                if (count > 1) run = 1;
+            }
+            if (matches > 1 && best > courtMaxContinuous[court]) total += best - courtMaxContinuous[court];
+        }
+
+        for (int r = 0; r < priorityMatches.length; r++) {
+            int[] matches = priorityMatches[r];
+            if (matches.length == 0) continue;
+            int onTarget = 0;
+            int target = priorityTargetCourt[r];
+            if (target >= 0) {
+                for (int m : matches) {
+                    if (validSlots[m][genes[m]] / hourSpan == target) onTarget++;
+                }
+            }
+            double actualPct = (double) onTarget / matches.length;
+            if (actualPct < priorityMin[r]) total += (priorityMin[r] - actualPct) * 100;
+        }
+        return total;
+    }
+
+    // Opción libre que respeta el máximo de horas continuas, elegida al azar (uniforme)
+    private int freeOption(int match) {
+        int[] options = validSlots[match];
+        int candidates = 0;
+        for (int cell : options) if (isCandidate(cell)) candidates++;
+        if (candidates == 0) return -1;
+
+        int k = JMetalRandom.getInstance().nextInt(0, candidates - 1);
+        for (int option = 0; option < options.length; option++) {
+            if (isCandidate(options[option]) && k-- == 0) return option;
+        }
+        return -1;
+    }
+
+    private boolean isCandidate(int cell) {
+        if (cellCount[cell] != 0) return false;
+        int court = cell / hourSpan;
+        if (court >= constrainedCourts) return true;
+
+        // Racha que se formaría al ocupar la celda: horas ocupadas contiguas a ambos lados
+        // (una hora repetida entra en la racha pero la corta)
+        int hour = cell - court * hourSpan;
+        int base = court * hourSpan;
+        int run = 1;
+        for (int h = hour - 1; h >= 0 && cellCount[base + h] > 0; h--) {
+            run++;
+            if (cellCount[base + h] > 1) break;
+        }
+        for (int h = hour + 1; h < hourSpan && cellCount[base + h] > 0; h++) {
+            run++;
+            if (cellCount[base + h] > 1) break;
+        }
+        return run <= courtMaxContinuous[court];
+    }
+
+    private void move(IntegerSolution solution, int[] genes, int match, int option) {
+        int oldCell = validSlots[match][genes[match]];
+        int newCell = validSlots[match][option];
+        cellCount[oldCell]--;
+        if (cellMatch[oldCell] == match) cellMatch[oldCell] = -1;
+        cellCount[newCell]++;
+        cellMatch[newCell] = match;
+
+        genes[match] = option;
+        if (!(solution instanceof FUHSolution)) solution.variables().set(match, option);
+    }
+}
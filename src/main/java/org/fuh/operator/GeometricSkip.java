@@ -0,0 +1,39 @@
+package org.fuh.operator;
+
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+/**
+ * Sorteo de posiciones por salto geométrico: en vez de un nextDouble() por gen se sortea
+ * cuántos genes se saltean hasta el próximo elegido. Cada gen resulta elegido con
+ * probabilidad p, de forma independiente, y las llamadas al RNG escalan con los elegidos.
+ */
+final class GeometricSkip {
+
+    private final double probability;
+    private final double logSkipProbability; // ln(1 - p)
+
+    GeometricSkip(double probability) {
+        this.probability = probability;
+        this.logSkipProbability = Math.log1p(-Math.min(probability, 1.0));
+    }
+
+    /** Primera posición elegida en [0, size), o size si no hay ninguna. */
+    int first(int size) {
+        return next(-1, size);
+    }
+
+    /** Siguiente posición elegida después de position, o size si no hay más. */
+    int next(int position, int size) {
+        if (probability <= 0) return size;
+        long next = (long) position + 1 + gap(size);
+        return (next < size) ? (int) next : size;
+    }
+
+    // Genes que no se eligen antes del próximo: Geométrica(p) = floor(ln U / ln(1-p)), U en (0, 1]
+    private long gap(int size) {
+        if (probability >= 1) return 0;
+        double u = 1.0 - JMetalRandom.getInstance().nextDouble();
+        double gap = Math.floor(Math.log(u) / logSkipProbability);
+        return (gap < size) ? (long) gap : size;  // acotado: evita desbordes con p muy chico
+    }
+}
@@ -0,0 +1,33 @@
+package org.fuh.operator;
+
+import org.uma.jmetal.operator.mutation.MutationOperator;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.util.List;
+
+/**
+ * Aplica varias mutaciones en secuencia sobre la misma solución (p. ej. FUHMutation y
+ * después FUHSwapMutation), para pasarlas a NSGA-II como un único operador.
+ */
+public class MutationChain implements MutationOperator<IntegerSolution> {
+
+    private final List<MutationOperator<IntegerSolution>> operators;
+
+    public MutationChain(List<MutationOperator<IntegerSolution>> operators) {
+        if (operators.isEmpty()) throw new IllegalArgumentException("MutationChain requiere al menos un operador");
+        this.operators = List.copyOf(operators);
+    }
+
+    /** Probabilidad del primer operador (la mutación principal). */
+    @Override
+    public double mutationProbability() {
+        return operators.get(0).mutationProbability();
+    }
+
+    @Override
+    public IntegerSolution execute(IntegerSolution solution) {
+        IntegerSolution result = solution;
+        for (MutationOperator<IntegerSolution> operator : operators) result = operator.execute(result);
+        return result;
+    }
+}
@@ -0,0 +1,171 @@
+package org.fuh.problem;
+
+import java.util.Arrays;
+
+/**
+ * Caché acotada de evaluaciones indexada por genotipo (vector de índices de slot).
+ * Cada entrada guarda una copia de los genes y se compara con Arrays.equals, así que una
+ * colisión de hash nunca devuelve valores de otro genotipo. Al llenarse se descarta
+ * la entrada usada hace más tiempo (LRU). Es segura para varios hilos.
+ *
+ * Las entradas viven en arreglos de capacidad fija (tabla con encadenamiento y lista LRU
+ * por índices): una vez llena, guardar reutiliza los arreglos de la entrada descartada y
+ * ni consultar ni guardar reservan memoria.
+ */
+public class EvaluationCache {
+
+    private static final int NONE = -1;
+
+    private final int capacity;
+
+    // Tabla hash: cubeta -> primera entrada, y siguiente entrada de la misma cubeta
+    private final int[] buckets;
+    private final int[] nextInBucket;
+
+    // Lista LRU doblemente enlazada por índices (eldest = usada hace más tiempo)
+    private final int[] older;
+    private final int[] newer;
+    private int eldest = NONE;
+    private int newest = NONE;
+
+    // Entradas (los arreglos se reservan la primera vez que se usa cada índice)
+    private final int[] hashes;
+    private final int[][] genes;
+    private final double[][] objectives;
+    private final double[][] constraints;
+    private int size;
+
+    private long hits;
+    private long misses;
+
+    public EvaluationCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity debe ser >= 1: " + capacity);
+        this.capacity = capacity;
+        int tableSize = Integer.highestOneBit(Math.max(1, capacity * 2 - 1)) << 1;
+        this.buckets = new int[tableSize];
+        this.nextInBucket = new int[capacity];
+        this.older = new int[capacity];
+        this.newer = new int[capacity];
+        this.hashes = new int[capacity];
+        this.genes = new int[capacity][];
+        this.objectives = new double[capacity][];
+        this.constraints = new double[capacity][];
+        Arrays.fill(buckets, NONE);
+    }
+
+    /** Copia los valores guardados en objectives/constraints; devuelve false si el genotipo no está. */
+    synchronized boolean lookup(int[] genes, double[] objectives, double[] constraints) {
+        int entry = find(genes, hash(genes));
+        if (entry == NONE) { misses++; return false; }
+        hits++;
+        touch(entry);
+        // Se copia dentro del bloqueo: la entrada puede reutilizarse apenas se descarte
+        System.arraycopy(this.objectives[entry], 0, objectives, 0, objectives.length);
+        System.arraycopy(this.constraints[entry], 0, constraints, 0, constraints.length);
+        return true;
+    }
+
+    synchronized void store(int[] genes, double[] objectives, double[] constraints) {
+        int hash = hash(genes);
+        int entry = find(genes, hash);
+        if (entry != NONE) {
+            // Otro hilo lo guardó entre la consulta y la evaluación: se refrescan los valores
+            touch(entry);
+        } else {
+            entry = (size < capacity) ? size++ : evictEldest();
+            this.genes[entry] = copyInto(this.genes[entry], genes);
+            hashes[entry] = hash;
+            int bucket = hash & (buckets.length - 1);
+            nextInBucket[entry] = buckets[bucket];
+            buckets[bucket] = entry;
+            linkNewest(entry);
+        }
+        this.objectives[entry] = copyInto(this.objectives[entry], objectives);
+        this.constraints[entry] = copyInto(this.constraints[entry], constraints);
+    }
+
+    public int getCapacity() { return capacity; }
+    public synchronized int size() { return size; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return (total == 0) ? 0.0 : (double) hits / total;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(buckets, NONE);
+        eldest = NONE;
+        newest = NONE;
+        size = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    // =========================================================
+    // TABLA Y LISTA LRU
+    // =========================================================
+
+    private int find(int[] genes, int hash) {
+        for (int entry = buckets[hash & (buckets.length - 1)]; entry != NONE; entry = nextInBucket[entry]) {
+            if (hashes[entry] == hash && Arrays.equals(this.genes[entry], genes)) return entry;
+        }
+        return NONE;
+    }
+
+    // Saca la entrada más vieja de su cubeta y de la lista; devuelve su índice para reutilizarlo
+    private int evictEldest() {
+        int entry = eldest;
+        unlink(entry);
+        int bucket = hashes[entry] & (buckets.length - 1);
+        if (buckets[bucket] == entry) {
+            buckets[bucket] = nextInBucket[entry];
+        } else {
+            int previous = buckets[bucket];
+            while (nextInBucket[previous] != entry) previous = nextInBucket[previous];
+            nextInBucket[previous] = nextInBucket[entry];
+        }
+        return entry;
+    }
+
+    private void touch(int entry) {
+        if (entry == newest) return;
+        unlink(entry);
+        linkNewest(entry);
+    }
+
+    private void unlink(int entry) {
+        if (older[entry] != NONE) newer[older[entry]] = newer[entry];
+        else eldest = newer[entry];
+        if (newer[entry] != NONE) older[newer[entry]] = older[entry];
+        else newest = older[entry];
+    }
+
+    private void linkNewest(int entry) {
+        older[entry] = newest;
+        newer[entry] = NONE;
+        if (newest != NONE) newer[newest] = entry;
+        else eldest = entry;
+        newest = entry;
+    }
+
+    // FNV-1a sobre los enteros, con mezcla final para repartir bien en la tabla
+    private static int hash(int[] genes) {
+        int h = 0x811c9dc5;
+        for (int gene : genes) h = (h ^ gene) * 0x01000193;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] copyInto(int[] target, int[] source) {
+        if (target == null || target.length != source.length) return source.clone();
+        System.arraycopy(source, 0, target, 0, source.length);
+        return target;
+    }
+
+    private static double[] copyInto(double[] target, double[] source) {
+        if (target == null || target.length != source.length) return source.clone();
+        System.arraycopy(source, 0, target, 0, source.length);
+        return target;
+    }
+}
@@ -3,24 +3,53 @@ package org.fuh.problem;
 import org.fuh.model.*;
 import org.uma.jmetal.problem.integerproblem.impl.AbstractIntegerProblem;
 import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 public class FUHSchedulingProblem extends AbstractIntegerProblem {
 
-    private final List<List<Slot>> validSlotsPerMatch;
-    private final List<MatchInfo> matchInfos;
-    private final Map<String, CourtConfig> courtConfigs;
-    private final List<InstitutionPriority> priorities;
-    private final List<CategoryBlock> categoryBlocks;
+    // Instancia compilada: todo el camino caliente trabaja sobre enteros densos
+    private final CompiledInstance instance;
+    private final int[][] validSlots;
     private final int numberOfMatches;
 
-    private IntegerSolution seedSolution = null; // Variable para la semilla
+    // Semilla: la consume (una sola vez) el primer createSolution, aunque haya varios hilos
+    private final AtomicReference<IntegerSolution> seedSolution = new AtomicReference<>();
+
+    // Población inicial generada por adelantado (la consume createSolution, en orden)
+    private final ConcurrentLinkedQueue<IntegerSolution> preparedPopulation = new ConcurrentLinkedQueue<>();
+    private final SmartRandomInitializer smartRandom;
+    private static final IntUnaryOperator JMETAL_RANDOM = bound -> JMetalRandom.getInstance().nextInt(0, bound - 1);
+
+    // Pares de partidos que comparten institución (fijo durante la corrida)
+    private final InstitutionGraph institutionGraph;
+
+    // Evaluación completa en una sola pasada por cubetas de cancha
+    private final FusedEvaluator fusedEvaluator;
+
+    // Evaluación incremental (delta): sólo re-puntúa los genes que cambiaron
+    private final IncrementalEvaluator incrementalEvaluator;
+    private boolean incrementalEvaluation = false;
+    private boolean verifyEvaluation = false;
+
+    // Evaluador original sobre el modelo (null si el problema se armó desde una CompiledInstance)
+    private final ReferenceEvaluator referenceEvaluator;
+
+    // Caché de evaluaciones por genotipo (null = desactivada)
+    private EvaluationCache evaluationCache = null;
+    private final ThreadLocal<int[]> genesBuffer;
 
     public FUHSchedulingProblem(
             List<List<Slot>> validSlotsPerMatch, 
@@ -28,191 +57,212 @@ public class FUHSchedulingProblem extends AbstractIntegerProblem {
             Map<String, CourtConfig> courtConfigs,
             List<InstitutionPriority> priorities,
             List<CategoryBlock> categoryBlocks) {
+        this(CompiledInstance.compile(validSlotsPerMatch, matchInfos, courtConfigs, priorities, categoryBlocks),
+                new ReferenceEvaluator(validSlotsPerMatch, matchInfos, courtConfigs, priorities, categoryBlocks));
+    }
 
-        this.validSlotsPerMatch = validSlotsPerMatch;
-        this.matchInfos = matchInfos;
-        this.courtConfigs = courtConfigs;
-        this.priorities = priorities;
-        this.categoryBlocks = categoryBlocks;
-        this.numberOfMatches = validSlotsPerMatch.size();
+    public FUHSchedulingProblem(CompiledInstance instance) {
+        this(instance, null);
+    }
+
+    private FUHSchedulingProblem(CompiledInstance instance, ReferenceEvaluator referenceEvaluator) {
+        this.instance = instance;
+        this.referenceEvaluator = referenceEvaluator;
+        this.validSlots = instance.getValidSlots();
+        this.numberOfMatches = instance.getNumberOfMatches();
 
         this.numberOfObjectives(2);
-        this.numberOfConstraints(1 + courtConfigs.size() + priorities.size());
+        this.numberOfConstraints(1 + instance.getConstrainedCourts() + instance.getNumberOfPriorities());
 
         List<Integer> lowerLimit = new ArrayList<>();
         List<Integer> upperLimit = new ArrayList<>();
 
-        for (List<Slot> slots : validSlotsPerMatch) {
+        // Un partido sin opciones (infactible) no impide armar el problema: MatchingConstructor lo informa
+        for (int[] slots : validSlots) {
             lowerLimit.add(0);
-            upperLimit.add(slots.size() - 1);
+            upperLimit.add(Math.max(0, slots.length - 1));
         }
         this.variableBounds(lowerLimit, upperLimit);
+
+        this.smartRandom = new SmartRandomInitializer(instance);
+        this.institutionGraph = new InstitutionGraph(instance);
+        this.fusedEvaluator = new FusedEvaluator(instance, institutionGraph);
+        this.incrementalEvaluator = new IncrementalEvaluator(instance, institutionGraph);
+        this.genesBuffer = ThreadLocal.withInitial(() -> new int[numberOfMatches]);
+    }
+
+    public CompiledInstance getInstance() {
+        return instance;
+    }
+
+    /**
+     * Problema nuevo sobre la misma instancia compilada y con la misma configuración de
+     * evaluación (incremental, verificación y una caché propia, vacía, del mismo tamaño).
+     * No hereda la semilla ni la población preparada. Sirve para correr varias poblaciones
+     * en paralelo sin compartir estado.
+     */
+    public FUHSchedulingProblem replicate() {
+        FUHSchedulingProblem copy = new FUHSchedulingProblem(instance, referenceEvaluator);
+        copy.incrementalEvaluation = incrementalEvaluation;
+        copy.verifyEvaluation = verifyEvaluation;
+        if (evaluationCache != null) copy.setEvaluationCache(evaluationCache.getCapacity());
+        return copy;
+    }
+
+    // Para la búsqueda local: evaluación delta movimiento a movimiento
+    IncrementalEvaluator incrementalEvaluator() {
+        return incrementalEvaluator;
     }
     
     public void setSeedSolution(IntegerSolution seed) {
-        this.seedSolution = seed;
+        this.seedSolution.set(seed);
+    }
+
+    /** Activa la evaluación incremental; los resultados son idénticos a la evaluación completa. */
+    public void setIncrementalEvaluation(boolean enabled) {
+        this.incrementalEvaluation = enabled;
+    }
+
+    /**
+     * Modo verificación (lento): cada evaluación se contrasta con el evaluador original, si el
+     * problema se armó desde el modelo; la incremental además con la evaluación fusionada.
+     */
+    public void setVerifyEvaluation(boolean enabled) {
+        this.verifyEvaluation = enabled;
+    }
+
+    /** Activa una caché LRU de evaluaciones con la capacidad dada (0 la desactiva). */
+    public void setEvaluationCache(int capacity) {
+        this.evaluationCache = (capacity > 0) ? new EvaluationCache(capacity) : null;
+    }
+
+    public EvaluationCache getEvaluationCache() {
+        return evaluationCache;
+    }
+
+    /**
+     * Devuelve al pool los estados incrementales que no usa ninguna de las soluciones dadas.
+     * Se llama entre generaciones, sin evaluaciones en curso, con la población que sobrevive.
+     */
+    public void recycleEvaluationStates(List<? extends IntegerSolution> survivors) {
+        incrementalEvaluator.recycle(survivors);
     }
 
     // 🔥 Método crucial: Inicialización
     @Override
     public IntegerSolution createSolution() {
         // 1. Si hay semilla, la usamos UNA SOLA VEZ (para el primer individuo)
-        if (this.seedSolution != null) {
-            IntegerSolution copy = (IntegerSolution) this.seedSolution.copy();
-            this.seedSolution = null; 
-            return copy;
+        IntegerSolution seed = this.seedSolution.getAndSet(null);
+        if (seed != null) {
+            return (IntegerSolution) seed.copy();
         }
 
-        // 2. LÓGICA ALEATORIA INTELIGENTE (Smart Random) para el resto de la población
-        IntegerSolution solution = super.createSolution();
-        Set<String> occupied = new HashSet<>();
-        List<Integer> matchOrder = new ArrayList<>();
-        for(int i=0; i<numberOfMatches; i++) matchOrder.add(i);
-        Collections.shuffle(matchOrder);
-
-        for (int matchIndex : matchOrder) {
-            List<Slot> options = validSlotsPerMatch.get(matchIndex);
-            int selectedSlotIndex = -1;
-            
-            List<Integer> optionIndices = new ArrayList<>();
-            for(int k=0; k<options.size(); k++) optionIndices.add(k);
-            Collections.shuffle(optionIndices);
-            
-            for (int optIdx : optionIndices) {
-                Slot candidate = options.get(optIdx);
-                String key = candidate.getCourtId() + "_" + candidate.getTimeSlotId();
-                if (!occupied.contains(key)) {
-                    selectedSlotIndex = optIdx;
-                    occupied.add(key);
-                    break;
-                }
-            }
-            if (selectedSlotIndex == -1) selectedSlotIndex = optionIndices.get(0);
-            solution.variables().set(matchIndex, selectedSlotIndex);
+        // 2. Individuos preparados en paralelo (prepareInitialPopulation), si quedan
+        IntegerSolution prepared = this.preparedPopulation.poll();
+        if (prepared != null) {
+            return prepared;
         }
+
+        // 3. LÓGICA ALEATORIA INTELIGENTE (Smart Random) para el resto de la población
+        // Las mezclas usan JMetalRandom para que la población inicial dependa sólo de la semilla
+        FUHSolution solution = new FUHSolution(variableBounds(), numberOfObjectives(), numberOfConstraints());
+        smartRandom.fill(solution.getGenes(), JMETAL_RANDOM, false);
         return solution;
     }
-    
-    @Override
-    public IntegerSolution evaluate(IntegerSolution solution) {
-        Slot[] assignments = decode(solution);
-        int constraintIndex = 0;
 
-        // --- RESTRICCIONES DURAS ---
-        double overlaps = countOverlaps(assignments);
-        solution.constraints()[constraintIndex++] = (overlaps == 0) ? 0.0 : -overlaps; // Superposición
+    /**
+     * Genera en paralelo los individuos Smart Random de la población inicial, que luego
+     * entrega createSolution (después de la semilla, si hay). Cada individuo usa su propio
+     * flujo aleatorio, derivado de la semilla por posición: el resultado no depende de la
+     * cantidad de hilos. Con una semilla inyectada se prepara un individuo menos.
+     */
+    public void prepareInitialPopulation(int populationSize, long seed, int numberOfThreads) {
+        int size = populationSize - ((seedSolution.get() != null) ? 1 : 0);
+        preparedPopulation.clear();
+        if (size <= 0) return;
 
-        for (CourtConfig court : courtConfigs.values()) {
-            double violation = checkMaxContinuousHours(assignments, court);
-            solution.constraints()[constraintIndex++] = (violation == 0) ? 0.0 : -violation;
-        }
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[size];
+        for (int k = 0; k < size; k++) streams[k] = root.split();
+
+        FUHSolution[] population = new FUHSolution[size];
+        IntConsumer build = k -> {
+            FUHSolution solution = new FUHSolution(variableBounds(), numberOfObjectives(), numberOfConstraints());
+            smartRandom.fill(solution.getGenes(), streams[k]::nextInt, true);
+            population[k] = solution;
+        };
 
-        for (InstitutionPriority rule : priorities) {
-            double violation = checkPriorityQuota(assignments, rule);
-            solution.constraints()[constraintIndex++] = (violation == 0) ? 0.0 : -violation;
+        if (numberOfThreads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+            try {
+                pool.submit(() -> IntStream.range(0, size).parallel().forEach(build)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Inicialización interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error en la inicialización", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (int k = 0; k < size; k++) build.accept(k);
         }
+        preparedPopulation.addAll(Arrays.asList(population));
+    }
+    
+    @Override
+    public IntegerSolution evaluate(IntegerSolution solution) {
+        if (evaluationCache == null) return evaluateUncached(solution);
 
-        // --- OBJETIVOS (Blandas) ---
-        solution.objectives()[0] = calculateInstitutionalContinuity(assignments);
-        solution.objectives()[1] = calculateCategoryContinuity(assignments);
-        
+        // Un genotipo ya evaluado no se vuelve a evaluar (sólo un fallo reserva memoria, al guardar)
+        int[] genes = FUHSolution.genesOf(solution, genesBuffer.get());
+        if (evaluationCache.lookup(genes, solution.objectives(), solution.constraints())) return solution;
+
+        evaluateUncached(solution);
+        evaluationCache.store(genes, solution.objectives(), solution.constraints());
         return solution;
     }
 
-    private Slot[] decode(IntegerSolution solution) {
-        Slot[] assignments = new Slot[numberOfMatches];
-        for (int i = 0; i < numberOfMatches; i++) {
-            int slotIndex = solution.variables().get(i);
-            assignments[i] = validSlotsPerMatch.get(i).get(slotIndex);
+    private IntegerSolution evaluateUncached(IntegerSolution solution) {
+        if (incrementalEvaluation) {
+            incrementalEvaluator.evaluate(solution);
+        } else {
+            evaluateFull(solution, solution.objectives(), solution.constraints());
         }
-        return assignments;
+        if (verifyEvaluation) verify(solution);
+        return solution;
     }
 
-    private double countOverlaps(Slot[] assignments) {
-        int overlaps = 0;
-        for (int i = 0; i < numberOfMatches; i++) {
-            for (int j = i + 1; j < numberOfMatches; j++) {
-                if (assignments[i].equals(assignments[j])) overlaps++;
-            }
-        }
-        return overlaps;
+    private void evaluateFull(IntegerSolution solution, double[] objectives, double[] constraints) {
+        fusedEvaluator.evaluate(solution, objectives, constraints);
     }
-    
-    private double calculateInstitutionalContinuity(Slot[] assignments) {
-        double totalPenalty = 0.0;
-        for (int i = 0; i < numberOfMatches; i++) {
-            MatchInfo infoA = matchInfos.get(i);
-            Slot slotA = assignments[i];
-            for (int j = i + 1; j < numberOfMatches; j++) {
-                MatchInfo infoB = matchInfos.get(j);
-                Slot slotB = assignments[j];
-                if (infoA.sharesInstitutionWith(infoB) && slotA.getCourtId().equals(slotB.getCourtId())) {
-                    int diff = Math.abs(slotA.getTimeSlotId() - slotB.getTimeSlotId());
-                    if (diff > 1) totalPenalty += (diff - 1); 
-                }
-            }
+
+    private void verify(IntegerSolution solution) {
+        double[] objectives = new double[solution.objectives().length];
+        double[] constraints = new double[solution.constraints().length];
+
+        if (incrementalEvaluation) {
+            evaluateFull(solution, objectives, constraints);
+            compare("incremental", "fusionada", solution.objectives(), solution.constraints(), objectives, constraints);
         }
-        return totalPenalty;
-    }
-    
-    private double calculateCategoryContinuity(Slot[] assignments) {
-        double totalPenalty = 0.0;
-        for (int i = 0; i < numberOfMatches; i++) {
-            String catA = matchInfos.get(i).getCategory();
-            Slot slotA = assignments[i];
-            for (int j = i + 1; j < numberOfMatches; j++) {
-                String catB = matchInfos.get(j).getCategory();
-                Slot slotB = assignments[j];
-                if (slotA.getCourtId().equals(slotB.getCourtId())) {
-                    if (isSameBlock(catA, catB)) {
-                        int diff = Math.abs(slotA.getTimeSlotId() - slotB.getTimeSlotId());
-                        if (diff > 1) totalPenalty += (diff - 1);
-                    }
-                }
+        if (referenceEvaluator != null) {
+            double[] referenceObjectives = new double[objectives.length];
+            double[] referenceConstraints = new double[constraints.length];
+            referenceEvaluator.evaluate(solution, referenceObjectives, referenceConstraints);
+            compare(incrementalEvaluation ? "incremental" : "fusionada", "original",
+                    solution.objectives(), solution.constraints(), referenceObjectives, referenceConstraints);
+            if (incrementalEvaluation) {
+                compare("fusionada", "original", objectives, constraints, referenceObjectives, referenceConstraints);
             }
         }
-        return totalPenalty;
-    }
-    
-    private boolean isSameBlock(String cat1, String cat2) {
-        if (cat1.equals(cat2)) return true;
-        for (CategoryBlock block : categoryBlocks) {
-            if (block.match(cat1, cat2)) return true; 
-        }
-        return false;
     }
 
-    private double checkMaxContinuousHours(Slot[] assignments, CourtConfig court) {
-        List<Integer> times = new ArrayList<>();
-        for (Slot s : assignments) {
-            if (s.getCourtId().equals(court.getId())) times.add(s.getTimeSlotId());
-        }
-        if (times.size() <= 1) return 0.0; 
-        Collections.sort(times);
-        int currentStreak = 1;
-        int maxStreakFound = 1;
-        for (int i = 1; i < times.size(); i++) {
-            if (times.get(i) == times.get(i - 1) + 1) currentStreak++;
-            else currentStreak = 1;
-            maxStreakFound = Math.max(maxStreakFound, currentStreak);
-        }
-        if (maxStreakFound > court.getMaxContinuousHours()) return (maxStreakFound - court.getMaxContinuousHours()); 
-        return 0.0;
-    }
-
-    private double checkPriorityQuota(Slot[] assignments, InstitutionPriority rule) {
-        int totalMatchesOfInst = 0;
-        int matchesOnTargetCourt = 0;
-        for (int i = 0; i < numberOfMatches; i++) {
-            MatchInfo info = matchInfos.get(i);
-            if (info.getHomeInstitution().equals(rule.getInstitution()) || info.getAwayInstitution().equals(rule.getInstitution())) {
-                totalMatchesOfInst++;
-                if (assignments[i].getCourtId().equals(rule.getTargetCourtId())) matchesOnTargetCourt++;
-            }
+    private static void compare(String evaluated, String expected, double[] objectives, double[] constraints,
+                                double[] expectedObjectives, double[] expectedConstraints) {
+        if (!Arrays.equals(objectives, expectedObjectives) || !Arrays.equals(constraints, expectedConstraints)) {
+            throw new IllegalStateException("Evaluación " + evaluated + " inconsistente con la " + expected + ": objetivos "
+                    + Arrays.toString(objectives) + " vs " + Arrays.toString(expectedObjectives)
+                    + ", restricciones " + Arrays.toString(constraints) + " vs " + Arrays.toString(expectedConstraints));
         }
-        if (totalMatchesOfInst == 0) return 0.0; 
-        double actualPct = (double) matchesOnTargetCourt / totalMatchesOfInst;
-        if (actualPct < rule.getMinPercentage()) return (rule.getMinPercentage() - actualPct) * 100; 
-        return 0.0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package org.fuh.problem;
+
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.bounds.Bounds;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Solución del FUH respaldada por un int[] de índices de slot (uno por partido).
+ * Implementa IntegerSolution, así que NSGA-II y los operadores genéricos la usan sin cambios
+ * a través de variables() (una vista que boxea sólo al leer). Los operadores y evaluadores
+ * del proyecto acceden directo al arreglo con getGenes(). copy() es un System.arraycopy.
+ */
+public class FUHSolution implements IntegerSolution {
+
+    private final int[] genes;
+    private final double[] objectives;
+    private final double[] constraints;
+    private final Map<Object, Object> attributes;
+    private final List<Bounds<Integer>> bounds;   // compartidos entre todas las copias
+    private final List<Integer> variables = new GeneView();
+
+    public FUHSolution(List<Bounds<Integer>> bounds, int numberOfObjectives, int numberOfConstraints) {
+        this.genes = new int[bounds.size()];
+        this.objectives = new double[numberOfObjectives];
+        this.constraints = new double[numberOfConstraints];
+        this.attributes = new HashMap<>();
+        this.bounds = bounds;
+    }
+
+    private FUHSolution(FUHSolution other) {
+        this.genes = other.genes.clone();
+        this.objectives = other.objectives.clone();
+        this.constraints = other.constraints.clone();
+        this.attributes = new HashMap<>(other.attributes);
+        this.bounds = other.bounds;
+    }
+
+    // =========================================================
+    // ACCESO DIRECTO
+    // =========================================================
+
+    /** Arreglo interno (no es copia): escribir en él modifica la solución. */
+    public int[] getGenes() { return genes; }
+    public int getGene(int match) { return genes[match]; }
+    public void setGene(int match, int slotIndex) { genes[match] = slotIndex; }
+
+    /**
+     * Genes de cualquier IntegerSolution como int[]: el arreglo interno si es una FUHSolution,
+     * o el buffer dado (con los valores copiados) en otro caso. No hay que modificar el resultado.
+     */
+    public static int[] genesOf(IntegerSolution solution, int[] buffer) {
+        if (solution instanceof FUHSolution) return ((FUHSolution) solution).genes;
+        List<Integer> values = solution.variables();
+        for (int i = 0; i < buffer.length; i++) buffer[i] = values.get(i);
+        return buffer;
+    }
+
+    /** Igual que {@link #genesOf(IntegerSolution, int[])}, reservando el buffer sólo si hace falta. */
+    public static int[] genesOf(IntegerSolution solution) {
+        if (solution instanceof FUHSolution) return ((FUHSolution) solution).genes;
+        return genesOf(solution, new int[solution.variables().size()]);
+    }
+
+    // =========================================================
+    // INTEGERSOLUTION
+    // =========================================================
+
+    @Override
+    public List<Integer> variables() { return variables; }
+
+    @Override
+    public double[] objectives() { return objectives; }
+
+    @Override
+    public double[] constraints() { return constraints; }
+
+    @Override
+    public Map<Object, Object> attributes() { return attributes; }
+
+    @Override
+    public Bounds<Integer> getBounds(int index) { return bounds.get(index); }
+
+    @Override
+    public FUHSolution copy() { return new FUHSolution(this); }
+
+    @Override
+    public String toString() {
+        return "FUHSolution{objectives=" + java.util.Arrays.toString(objectives)
+                + ", constraints=" + java.util.Arrays.toString(constraints) + "}";
+    }
+
+    // Vista List<Integer> de tamaño fijo sobre el arreglo
+    private final class GeneView extends AbstractList<Integer> implements RandomAccess {
+        @Override
+        public Integer get(int index) { return genes[index]; }
+
+        @Override
+        public Integer set(int index, Integer value) {
+            int previous = genes[index];
+            genes[index] = value;
+            return previous;
+        }
+
+        @Override
+        public int size() { return genes.length; }
+    }
+}
@@ -0,0 +1,169 @@
+package org.fuh.problem;
+
+import org.fuh.model.CompiledInstance;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fase memética sobre el frente final: hill climbing de primera mejora con dos vecindades,
+ * mover un partido a otra de sus opciones o intercambiar su slot con el partido que ocupa
+ * la celda destino. Cada vecino se puntúa con la evaluación incremental (sólo los genes que
+ * cambian) y se acepta si domina a la solución actual según el comparador dado.
+ * Cada solución del frente se pule en su propio hilo hasta agotar el presupuesto de tiempo
+ * o hasta quedar en un óptimo local.
+ */
+public class FrontLocalSearch {
+
+    // Vecinos seguidos sin mejora (por partido) para dar la solución por óptimo local
+    private static final int STALL_FACTOR = 50;
+
+    private final FUHSchedulingProblem problem;
+    private final CompiledInstance instance;
+    private final IncrementalEvaluator evaluator;
+    private final Comparator<IntegerSolution> comparator;
+
+    private final AtomicLong neighbours = new AtomicLong();
+    private final AtomicLong improvements = new AtomicLong();
+
+    public FrontLocalSearch(FUHSchedulingProblem problem, Comparator<IntegerSolution> comparator) {
+        this.problem = problem;
+        this.instance = problem.getInstance();
+        this.evaluator = problem.incrementalEvaluator();
+        this.comparator = comparator;
+    }
+
+    public long getNeighbours() { return neighbours.get(); }
+    public long getImprovements() { return improvements.get(); }
+
+    /**
+     * Pule cada solución no dominada del frente durante a lo sumo budgetMillis y devuelve
+     * el nuevo frente no dominado. Las soluciones originales no se modifican.
+     */
+    public List<IntegerSolution> polish(List<IntegerSolution> front, long budgetMillis, int numberOfThreads, long seed) {
+        List<IntegerSolution> starts = nonDominated(front, comparator);
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numberOfThreads), runnable -> {
+            Thread thread = new Thread(runnable, "fuh-local-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<FUHSolution>> tasks = new ArrayList<>();
+            for (int k = 0; k < starts.size(); k++) {
+                IntegerSolution start = starts.get(k);
+                SplittableRandom random = new SplittableRandom(seed + k);
+                tasks.add(executor.submit(() -> climb(start, deadline, random)));
+            }
+            List<IntegerSolution> polished = new ArrayList<>();
+            for (Future<FUHSolution> task : tasks) polished.add(task.get());
+            return nonDominated(polished, comparator);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Búsqueda local interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Error en la búsqueda local", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FUHSolution climb(IntegerSolution start, long deadline, SplittableRandom random) {
+        FUHSolution current = toFUHSolution(start);
+        int[] genes = current.getGenes();
+        int[][] validSlots = instance.getValidSlots();
+        int n = genes.length;
+
+        IncrementalEvaluator.State state = evaluator.stateFor(current);
+        evaluator.score(state, current.objectives(), current.constraints());
+        FUHSolution candidate = new FUHSolution(problem.variableBounds(),
+                current.objectives().length, current.constraints().length);
+
+        // Ocupante de cada celda (uno; -1 si está libre o no se conoce)
+        int[] cellMatch = new int[instance.getNumberOfCells()];
+        Arrays.fill(cellMatch, -1);
+        for (int m = 0; m < n; m++) cellMatch[evaluator.cellOf(state, m)] = m;
+
+        long tried = 0;
+        long accepted = 0;
+        long stall = 0;
+        long stallLimit = (long) STALL_FACTOR * n;
+        while (stall < stallLimit && ((tried & 63) != 0 || System.nanoTime() < deadline)) {
+            tried++;
+            stall++;
+            int match = random.nextInt(n);
+            int[] options = validSlots[match];
+            int option = random.nextInt(options.length);
+            int oldGene = genes[match];
+            if (option == oldGene) continue;
+
+            int ownCell = options[oldGene];
+            int targetCell = options[option];
+            int partner = cellMatch[targetCell];
+            int partnerOption = (partner >= 0 && partner != match) ? instance.optionOf(partner, ownCell) : -1;
+            boolean swap = partnerOption >= 0 && random.nextBoolean();
+            int partnerOldGene = swap ? genes[partner] : -1;
+
+            evaluator.apply(state, match, option);
+            if (swap) evaluator.apply(state, partner, partnerOption);
+            evaluator.score(state, candidate.objectives(), candidate.constraints());
+
+            if (comparator.compare(candidate, current) < 0) {
+                genes[match] = option;
+                if (swap) genes[partner] = partnerOption;
+                System.arraycopy(candidate.objectives(), 0, current.objectives(), 0, current.objectives().length);
+                System.arraycopy(candidate.constraints(), 0, current.constraints(), 0, current.constraints().length);
+                if (swap) cellMatch[ownCell] = partner;
+                else if (cellMatch[ownCell] == match) cellMatch[ownCell] = -1;
+                cellMatch[targetCell] = match;
+                accepted++;
+                stall = 0;
+            } else {
+                // Deshacer: mismos movimientos en sentido inverso
+                if (swap) evaluator.apply(state, partner, partnerOldGene);
+                evaluator.apply(state, match, oldGene);
+                evaluator.score(state, candidate.objectives(), candidate.constraints());
+            }
+        }
+
+        neighbours.addAndGet(tried);
+        improvements.addAndGet(accepted);
+        return current;
+    }
+
+    private FUHSolution toFUHSolution(IntegerSolution solution) {
+        if (solution instanceof FUHSolution) return ((FUHSolution) solution).copy();
+        FUHSolution copy = new FUHSolution(problem.variableBounds(),
+                solution.objectives().length, solution.constraints().length);
+        FUHSolution.genesOf(solution, copy.getGenes());
+        return copy;
+    }
+
+    /** Soluciones que ninguna otra domina según el comparador, sin genotipos repetidos. */
+    public static List<IntegerSolution> nonDominated(List<IntegerSolution> solutions,
+                                                     Comparator<IntegerSolution> comparator) {
+        List<IntegerSolution> result = new ArrayList<>();
+        for (IntegerSolution s : solutions) {
+            boolean keep = true;
+            for (IntegerSolution other : solutions) {
+                if (other != s && comparator.compare(other, s) < 0) { keep = false; break; }
+            }
+            for (int k = 0; keep && k < result.size(); k++) {
+                keep = !Arrays.equals(FUHSolution.genesOf(s), FUHSolution.genesOf(result.get(k)));
+            }
+            if (keep) result.add(s);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,260 @@
+package org.fuh.problem;
+
+import org.fuh.model.CompiledInstance;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.util.Arrays;
+
+/**
+ * Evaluación completa en una sola pasada: decodifica los genes, arma la tabla de
+ * ocupación y reparte los partidos en cubetas por cancha (counting sort). Con esas
+ * cubetas se calculan juntas superposición, rachas, cuotas de prioridad y ambas
+ * penalizaciones de continuidad, sin volver a recorrer el arreglo de asignaciones.
+ * Los buffers de trabajo son por hilo y se reutilizan: tras el calentamiento, evaluar no asigna memoria.
+ */
+class FusedEvaluator {
+
+    private final CompiledInstance instance;
+    private final int[][] validSlots;
+    private final int numberOfMatches;
+    private final int numberOfCourts;
+    private final int constrainedCourts;
+    private final int numberOfCells;
+    private final int hourSpan;
+    private final boolean bitTimelines;     // hourSpan <= 64: una palabra long por cancha
+    private final int[] courtMaxContinuous;
+    private final int[][] institutionNeighbours;
+
+    // Continuidad de categorías: clase de bloque por partido (null si la relación no es transitiva)
+    private final int[] matchClass;
+    private final int numberOfClasses;
+
+    // Prioridades: cada regla sólo recorre los partidos de su institución
+    private final int[][] priorityMatches;
+    private final int[] priorityTargetCourt;
+    private final double[] priorityMin;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    FusedEvaluator(CompiledInstance instance, InstitutionGraph institutionGraph) {
+        this.instance = instance;
+        this.validSlots = instance.getValidSlots();
+        this.numberOfMatches = instance.getNumberOfMatches();
+        this.numberOfCourts = instance.getNumberOfCourts();
+        this.constrainedCourts = instance.getConstrainedCourts();
+        this.numberOfCells = instance.getNumberOfCells();
+        this.hourSpan = instance.getHourSpan();
+        this.bitTimelines = hourSpan <= Long.SIZE;
+        this.courtMaxContinuous = instance.getCourtMaxContinuous();
+        this.institutionNeighbours = institutionGraph.neighbours;
+
+        int[] categoryClass = instance.getCategoryClass();
+        if (categoryClass != null) {
+            this.matchClass = new int[numberOfMatches];
+            for (int i = 0; i < numberOfMatches; i++) matchClass[i] = categoryClass[instance.getMatchCategory()[i]];
+        } else {
+            this.matchClass = null;
+        }
+        this.numberOfClasses = instance.getNumberOfCategoryClasses();
+
+        this.priorityMatches = instance.getPriorityMatches();
+        this.priorityTargetCourt = instance.getPriorityTargetCourt();
+        this.priorityMin = instance.getPriorityMinPercentage();
+    }
+
+    void evaluate(IntegerSolution solution, double[] objectives, double[] constraints) {
+        Scratch s = scratch.get();
+        int[] genes = FUHSolution.genesOf(solution, s.genes);
+        int[] cells = s.cells;
+        int[] cellCount = s.cellCount;
+        int[] courtStart = s.courtStart;
+        int[] order = s.order;
+        long[] occupied = s.occupied;   // horas con al menos un partido
+        long[] repeated = s.repeated;   // horas con dos o más
+        Arrays.fill(cellCount, 0);
+        Arrays.fill(courtStart, 0);
+        Arrays.fill(occupied, 0L);
+        Arrays.fill(repeated, 0L);
+
+        // 1. Única pasada: decodificar, ocupación por celda y tamaño de cada cancha
+        long overlaps = 0;
+        for (int i = 0; i < numberOfMatches; i++) {
+            int cell = validSlots[i][genes[i]];
+            int court = cell / hourSpan;
+            cells[i] = cell;
+            if (bitTimelines) {
+                long bit = 1L << (cell - court * hourSpan);
+                if (cellCount[cell] > 0) repeated[court] |= bit;
+                occupied[court] |= bit;
+            }
+            overlaps += cellCount[cell]++;
+            courtStart[court + 1]++;
+        }
+
+        // 2. Cubetas por cancha (counting sort estable)
+        for (int c = 0; c < numberOfCourts; c++) courtStart[c + 1] += courtStart[c];
+        int[] next = s.next;
+        System.arraycopy(courtStart, 0, next, 0, numberOfCourts);
+        for (int i = 0; i < numberOfMatches; i++) order[next[cells[i] / hourSpan]++] = i;
+
+        // 3. Todo lo demás se calcula cancha por cancha
+        int[] classHours = s.classHours;
+        int[] classesSeen = s.classesSeen;
+        int[] classMark = s.classMark;
+        if (classMark != null) Arrays.fill(classMark, 0);
+        long institutional = 0;
+        long category = 0;
+        int constraintIndex = 1;
+
+        for (int c = 0; c < numberOfCourts; c++) {
+            int from = courtStart[c];
+            int to = courtStart[c + 1];
+
+            // Racha máxima (sólo canchas con restricción)
+            if (c < constrainedCourts) {
+                double violation = 0.0;
+                if (to - from > 1) {
+                    int streak = bitTimelines
+                            ? longestStreak(occupied[c], repeated[c])
+                            : longestStreak(cellCount, c * hourSpan, hourSpan);
+                    if (streak > courtMaxContinuous[c]) violation = streak - courtMaxContinuous[c];
+                }
+                constraints[constraintIndex++] = (violation == 0) ? 0.0 : -violation;
+            }
+
+            // Continuidad institucional: aristas cuyo otro extremo está en esta cancha
+            for (int k = from; k < to; k++) {
+                int i = order[k];
+                for (int j : institutionNeighbours[i]) {
+                    if (j > i && cells[j] / hourSpan == c) {
+                        int diff = Math.abs(cells[i] - cells[j]);
+                        if (diff > 1) institutional += diff - 1;
+                    }
+                }
+            }
+
+            // Continuidad de categorías
+            category += (matchClass != null)
+                    ? categorySweep(c, order, from, to, cells, classHours, classesSeen, classMark)
+                    : categoryPairwise(order, from, to, cells);
+        }
+
+        // Cuotas de prioridad: partidos de la institución que cayeron en la cancha objetivo
+        for (int r = 0; r < priorityMatches.length; r++) {
+            double violation = 0.0;
+            int[] matches = priorityMatches[r];
+            if (matches.length > 0) {
+                int onTarget = 0;
+                int target = priorityTargetCourt[r];
+                if (target >= 0) {
+                    for (int i : matches) {
+                        if (cells[i] / hourSpan == target) onTarget++;
+                    }
+                }
+                double actualPct = (double) onTarget / matches.length;
+                if (actualPct < priorityMin[r]) violation = (priorityMin[r] - actualPct) * 100;
+            }
+            constraints[constraintIndex++] = (violation == 0) ? 0.0 : -violation;
+        }
+
+        constraints[0] = (overlaps == 0) ? 0.0 : -(double) overlaps;
+        objectives[0] = institutional;
+        objectives[1] = category;
+    }
+
+    // Buffers de trabajo de un hilo (classHours queda en cero al terminar cada barrido)
+    private final class Scratch {
+        final int[] genes = new int[numberOfMatches];
+        final int[] cells = new int[numberOfMatches];
+        final int[] cellCount = new int[numberOfCells];
+        final int[] courtStart = new int[numberOfCourts + 1];
+        final int[] next = new int[numberOfCourts];
+        final int[] order = new int[numberOfMatches];
+        final long[] occupied = new long[numberOfCourts];
+        final long[] repeated = new long[numberOfCourts];
+        final int[] classHours = (matchClass != null) ? new int[numberOfClasses * hourSpan] : null;
+        final int[] classesSeen = (matchClass != null) ? new int[numberOfClasses] : null;
+        final int[] classMark = (matchClass != null) ? new int[numberOfClasses] : null;
+    }
+
+    // Histograma por (clase, hora) dentro de la cancha y barrido en orden de hora
+    private long categorySweep(int court, int[] order, int from, int to, int[] cells,
+                               int[] classHours, int[] classesSeen, int[] classMark) {
+        int seen = 0;
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            int cls = matchClass[i];
+            if (classMark[cls] != court + 1) {
+                classMark[cls] = court + 1;
+                classesSeen[seen++] = cls;
+            }
+            classHours[cls * hourSpan + cells[i] % hourSpan]++;
+        }
+
+        // Cada par (t' < t) del mismo bloque suma t - t' - 1
+        long penalty = 0;
+        for (int s = 0; s < seen; s++) {
+            int base = classesSeen[s] * hourSpan;
+            long countLess = 0;
+            long sumLess = 0;
+            for (int h = 0; h < hourSpan; h++) {
+                int count = classHours[base + h];
+                if (count == 0) continue;
+                penalty += count * (countLess * (h - 1) - sumLess);
+                countLess += count;
+                sumLess += (long) count * h;
+                classHours[base + h] = 0;
+            }
+        }
+        return penalty;
+    }
+
+    // Relación de bloques no transitiva: pares dentro de la cancha usando la matriz
+    private long categoryPairwise(int[] order, int from, int to, int[] cells) {
+        long penalty = 0;
+        for (int a = from; a < to; a++) {
+            for (int b = a + 1; b < to; b++) {
+                int i = order[a];
+                int j = order[b];
+                if (instance.sameBlock(i, j)) {
+                    int diff = Math.abs(cells[i] - cells[j]);
+                    if (diff > 1) penalty += diff - 1;
+                }
+            }
+        }
+        return penalty;
+    }
+
+    /**
+     * Racha máxima con la misma semántica que la versión ordenada original:
+     * una hora repetida cierra la racha y abre otra nueva en esa misma hora.
+     * Versión bitset: links marca las horas h con h y h+1 ocupadas; una racha de k+1 horas
+     * son k links seguidos cuyas horas intermedias no están repetidas. Cada iteración
+     * alarga la racha en uno, así que el costo es O(racha) operaciones sobre una palabra.
+     */
+    static int longestStreak(long occupied, long repeated) {
+        if (occupied == 0) return 0;
+        long links = occupied & (occupied >>> 1);
+        long extendable = links & ~repeated;
+        int streak = 1;
+        for (int k = 1; links != 0; k++) {
+            streak = k + 1;
+            links &= extendable >>> k;
+        }
+        return streak;
+    }
+
+    // Versión por conteos, para instancias con más de 64 horas por cancha
+    static int longestStreak(int[] cellCount, int base, int span) {
+        int current = 0;
+        int best = 0;
+        for (int h = 0; h < span; h++) {
+            int count = cellCount[base + h];
+            if (count == 0) { current = 0; continue; }
+            current++;
+            best = Math.max(best, current);
+            if (count > 1) current = 1;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,377 @@
+package org.fuh.problem;
+
+import org.fuh.model.CompiledInstance;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluación incremental (delta) del FUHSchedulingProblem.
+ * Cada solución guarda en sus atributos un {@link State} con la ocupación por cancha/hora,
+ * los términos de cada restricción y los aportes de cada objetivo. Al evaluar, sólo se
+ * recalculan los términos afectados por los genes que cambiaron desde la última evaluación.
+ * Los estados de las soluciones descartadas se reciclan (ver {@link #recycle}): en régimen
+ * estable, evaluar un hijo recién copiado no reserva memoria.
+ */
+class IncrementalEvaluator {
+
+    static final String STATE_ATTRIBUTE = "FUH_INCREMENTAL_STATE";
+
+    private final int numberOfMatches;
+    private final int constrainedCourts;       // canchas con restricción (orden de courtConfigs.values())
+    private final int numberOfCourts;
+    private final int numberOfCells;
+    private final int hourSpan;
+    private final boolean bitTimelines;        // hourSpan <= 64: rachas sobre una palabra long por cancha
+
+    private final int[][] slotCells;           // [partido][opción] -> celda (cancha * hourSpan + hora - minHour)
+    private final int[] courtMaxContinuous;
+    private final int[][] institutionNeighbours;
+    private final int[][] blockNeighbours;
+    private final int[][] prioritiesPerMatch;  // reglas cuya institución juega el partido
+    private final int[] priorityTargetCourt;   // -1 si la cancha objetivo no existe
+    private final int[] priorityTotal;
+    private final double[] priorityMin;
+
+    // Buffer por hilo para leer los genes de soluciones que no son FUHSolution
+    private final ThreadLocal<int[]> genesBuffer;
+
+    // Reciclaje de estados: se activa con el primer recycle (antes, los estados los libera el GC)
+    private final List<State> issuedStates = new ArrayList<>();
+    private final List<State> freeStates = new ArrayList<>();
+    private boolean recycling = false;
+    private int epoch = 0;
+
+    IncrementalEvaluator(CompiledInstance instance, InstitutionGraph institutionGraph) {
+
+        this.numberOfMatches = instance.getNumberOfMatches();
+        this.constrainedCourts = instance.getConstrainedCourts();
+        this.numberOfCourts = instance.getNumberOfCourts();
+        this.numberOfCells = instance.getNumberOfCells();
+        this.hourSpan = instance.getHourSpan();
+        this.bitTimelines = hourSpan <= Long.SIZE;
+        this.slotCells = instance.getValidSlots();
+        this.courtMaxContinuous = instance.getCourtMaxContinuous();
+
+        // 1. Vecindades fijas: partidos que comparten institución / bloque de categoría
+        this.institutionNeighbours = institutionGraph.neighbours;
+        this.blockNeighbours = new int[numberOfMatches][];
+        for (int i = 0; i < numberOfMatches; i++) {
+            List<Integer> block = new ArrayList<>();
+            for (int j = 0; j < numberOfMatches; j++) {
+                if (i != j && instance.sameBlock(i, j)) block.add(j);
+            }
+            blockNeighbours[i] = toArray(block);
+        }
+
+        // 2. Reglas de prioridad
+        int[][] priorityMatches = instance.getPriorityMatches();
+        this.priorityTargetCourt = instance.getPriorityTargetCourt();
+        this.priorityMin = instance.getPriorityMinPercentage();
+        this.priorityTotal = new int[priorityMatches.length];
+        List<List<Integer>> rulesOfMatch = new ArrayList<>();
+        for (int i = 0; i < numberOfMatches; i++) rulesOfMatch.add(new ArrayList<>());
+        for (int r = 0; r < priorityMatches.length; r++) {
+            priorityTotal[r] = priorityMatches[r].length;
+            for (int i : priorityMatches[r]) rulesOfMatch.get(i).add(r);
+        }
+        this.prioritiesPerMatch = new int[numberOfMatches][];
+        for (int i = 0; i < numberOfMatches; i++) prioritiesPerMatch[i] = toArray(rulesOfMatch.get(i));
+        this.genesBuffer = ThreadLocal.withInitial(() -> new int[numberOfMatches]);
+    }
+
+    // =========================================================
+    // EVALUACIÓN
+    // =========================================================
+
+    /**
+     * Evalúa la solución reutilizando el estado guardado en sus atributos (o el heredado
+     * del padre al copiarla). Sólo los genes distintos al estado se vuelven a puntuar.
+     */
+    void evaluate(IntegerSolution solution) {
+        State state = (State) solution.attributes().get(STATE_ATTRIBUTE);
+        int[] genes = FUHSolution.genesOf(solution, genesBuffer.get());
+
+        if (state == null || state.source != this) {
+            state = buildState(solution, genes);
+        } else {
+            // El mapa de atributos se copia superficialmente: el estado del padre no se toca
+            if (state.owner != solution) state = copyOf(state, solution);
+            for (int i = 0; i < numberOfMatches; i++) {
+                if (genes[i] != state.genes[i]) move(state, i, genes[i]);
+            }
+            refreshDirtyCourts(state);
+        }
+        solution.attributes().put(STATE_ATTRIBUTE, state);
+        write(state, solution.objectives(), solution.constraints());
+    }
+
+    // =========================================================
+    // RECICLAJE
+    // =========================================================
+
+    /**
+     * Punto seguro entre generaciones (ninguna evaluación en curso): los estados que no usa
+     * ninguna de las soluciones dadas vuelven al pool y los toman los hijos siguientes.
+     * Las soluciones que no están en la lista no deben volver a evaluarse en paralelo.
+     */
+    synchronized void recycle(List<? extends IntegerSolution> survivors) {
+        recycling = true;
+        epoch++;
+        for (int k = 0; k < survivors.size(); k++) {
+            Object attribute = survivors.get(k).attributes().get(STATE_ATTRIBUTE);
+            if (attribute instanceof State) ((State) attribute).epoch = epoch;
+        }
+        // Compacta en el lugar la lista de estados entregados (índices: sin iteradores)
+        int kept = 0;
+        for (int k = 0; k < issuedStates.size(); k++) {
+            State state = issuedStates.get(k);
+            if (state.epoch == epoch) issuedStates.set(kept++, state);
+            else freeStates.add(state);
+        }
+        for (int k = issuedStates.size() - 1; k >= kept; k--) issuedStates.remove(k);
+    }
+
+    // Estado del pool (o nuevo) para el dueño dado; su contenido lo sobrescribe quien lo pide
+    private synchronized State acquire(Object owner) {
+        State state = freeStates.isEmpty()
+                ? new State(this, owner, numberOfMatches, numberOfCells, numberOfCourts, priorityTotal.length)
+                : freeStates.remove(freeStates.size() - 1);
+        state.owner = owner;
+        if (recycling) issuedStates.add(state);
+        return state;
+    }
+
+    private State copyOf(State base, Object owner) {
+        State state = acquire(owner);
+        state.copyFrom(base);
+        return state;
+    }
+
+    // =========================================================
+    // MOVIMIENTOS SUELTOS (búsqueda local)
+    // =========================================================
+
+    /** Estado nuevo, propio de la solución (fuera del pool), construido desde sus genes actuales. */
+    State stateFor(IntegerSolution solution) {
+        State state = new State(this, solution, numberOfMatches, numberOfCells, numberOfCourts, priorityTotal.length);
+        fill(state, FUHSolution.genesOf(solution, genesBuffer.get()));
+        solution.attributes().put(STATE_ATTRIBUTE, state);
+        return state;
+    }
+
+    /** Asigna la opción al partido y actualiza los términos afectados (O(vecinos)). */
+    void apply(State state, int match, int gene) {
+        move(state, match, gene);
+    }
+
+    /** Vuelca objetivos y restricciones del estado (recalcula sólo las rachas de canchas tocadas). */
+    void score(State state, double[] objectives, double[] constraints) {
+        refreshDirtyCourts(state);
+        write(state, objectives, constraints);
+    }
+
+    int cellOf(State state, int match) {
+        return state.cells[match];
+    }
+
+    private State buildState(IntegerSolution solution, int[] genes) {
+        State state = acquire(solution);
+        state.clear();
+        fill(state, genes);
+        return state;
+    }
+
+    // Construye el estado (vacío) desde los genes: O(n + vecindades)
+    private void fill(State state, int[] genes) {
+        for (int i = 0; i < numberOfMatches; i++) {
+            int gene = genes[i];
+            int cell = slotCells[i][gene];
+            state.genes[i] = gene;
+            state.cells[i] = cell;
+            state.overlaps += state.cellCount[cell]++;
+            updateTimeline(state, cell);
+            state.courtTotal[cell / hourSpan]++;
+            for (int r : prioritiesPerMatch[i]) {
+                if (priorityTargetCourt[r] == cell / hourSpan) state.priorityOnTarget[r]++;
+            }
+        }
+        for (int i = 0; i < numberOfMatches; i++) {
+            for (int j : institutionNeighbours[i]) {
+                if (j > i) state.institutional += pairPenalty(state.cells[i], state.cells[j]);
+            }
+            for (int j : blockNeighbours[i]) {
+                if (j > i) state.category += pairPenalty(state.cells[i], state.cells[j]);
+            }
+        }
+        for (int c = 0; c < constrainedCourts; c++) state.courtStreak[c] = longestStreak(state, c);
+    }
+
+    private void move(State state, int match, int newGene) {
+        int oldCell = state.cells[match];
+        int newCell = slotCells[match][newGene];
+        state.genes[match] = newGene;
+        if (oldCell == newCell) return;
+
+        // Aportes de los pares antes del cambio
+        for (int j : institutionNeighbours[match]) state.institutional -= pairPenalty(oldCell, state.cells[j]);
+        for (int j : blockNeighbours[match]) state.category -= pairPenalty(oldCell, state.cells[j]);
+
+        // Superposición: pares en la misma celda
+        state.overlaps -= --state.cellCount[oldCell];
+        state.overlaps += state.cellCount[newCell]++;
+        state.cells[match] = newCell;
+        updateTimeline(state, oldCell);
+        updateTimeline(state, newCell);
+
+        int oldCourt = oldCell / hourSpan;
+        int newCourt = newCell / hourSpan;
+        state.courtTotal[oldCourt]--;
+        state.courtTotal[newCourt]++;
+        state.dirtyCourt[oldCourt] = true;
+        state.dirtyCourt[newCourt] = true;
+
+        if (oldCourt != newCourt) {
+            for (int r : prioritiesPerMatch[match]) {
+                if (priorityTargetCourt[r] == oldCourt) state.priorityOnTarget[r]--;
+                if (priorityTargetCourt[r] == newCourt) state.priorityOnTarget[r]++;
+            }
+        }
+
+        // Aportes de los pares después del cambio
+        for (int j : institutionNeighbours[match]) state.institutional += pairPenalty(newCell, state.cells[j]);
+        for (int j : blockNeighbours[match]) state.category += pairPenalty(newCell, state.cells[j]);
+    }
+
+    private void refreshDirtyCourts(State state) {
+        for (int c = 0; c < constrainedCourts; c++) {
+            if (state.dirtyCourt[c]) state.courtStreak[c] = longestStreak(state, c);
+        }
+        Arrays.fill(state.dirtyCourt, false);
+    }
+
+    private void write(State state, double[] objectives, double[] constraints) {
+        int constraintIndex = 0;
+        double overlaps = state.overlaps;
+        constraints[constraintIndex++] = (overlaps == 0) ? 0.0 : -overlaps;
+
+        for (int c = 0; c < constrainedCourts; c++) {
+            double violation = 0.0;
+            if (state.courtTotal[c] > 1 && state.courtStreak[c] > courtMaxContinuous[c]) {
+                violation = state.courtStreak[c] - courtMaxContinuous[c];
+            }
+            constraints[constraintIndex++] = (violation == 0) ? 0.0 : -violation;
+        }
+
+        for (int r = 0; r < priorityTotal.length; r++) {
+            double violation = 0.0;
+            if (priorityTotal[r] > 0) {
+                double actualPct = (double) state.priorityOnTarget[r] / priorityTotal[r];
+                if (actualPct < priorityMin[r]) violation = (priorityMin[r] - actualPct) * 100;
+            }
+            constraints[constraintIndex++] = (violation == 0) ? 0.0 : -violation;
+        }
+
+        objectives[0] = state.institutional;
+        objectives[1] = state.category;
+    }
+
+    // =========================================================
+    // AUXILIARES
+    // =========================================================
+
+    private long pairPenalty(int cellA, int cellB) {
+        if (cellA / hourSpan != cellB / hourSpan) return 0;
+        int diff = Math.abs(cellA - cellB);
+        return (diff > 1) ? diff - 1 : 0;
+    }
+
+    // Mantiene los bits ocupada/repetida de la hora de la celda según su conteo actual
+    private void updateTimeline(State state, int cell) {
+        if (!bitTimelines) return;
+        int court = cell / hourSpan;
+        long bit = 1L << (cell - court * hourSpan);
+        int count = state.cellCount[cell];
+        state.occupied[court] = (count > 0) ? state.occupied[court] | bit : state.occupied[court] & ~bit;
+        state.repeated[court] = (count > 1) ? state.repeated[court] | bit : state.repeated[court] & ~bit;
+    }
+
+    private int longestStreak(State state, int court) {
+        return bitTimelines
+                ? FusedEvaluator.longestStreak(state.occupied[court], state.repeated[court])
+                : FusedEvaluator.longestStreak(state.cellCount, court * hourSpan, hourSpan);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int k = 0; k < result.length; k++) result[k] = values.get(k);
+        return result;
+    }
+
+    // =========================================================
+    // ESTADO POR SOLUCIÓN
+    // =========================================================
+
+    static final class State {
+        private final IncrementalEvaluator source;
+        private Object owner;
+        private int epoch;                     // última vez que una sobreviviente lo usaba (recycle)
+        private final int[] genes;
+        private final int[] cells;
+        private final int[] cellCount;
+        private final int[] courtTotal;
+        private final long[] occupied;         // por cancha: horas con al menos un partido
+        private final long[] repeated;         // por cancha: horas con dos o más
+        private final int[] courtStreak;
+        private final boolean[] dirtyCourt;
+        private final int[] priorityOnTarget;
+        private long overlaps;
+        private long institutional;
+        private long category;
+
+        private State(IncrementalEvaluator source, Object owner, int matches, int cells, int courts, int rules) {
+            this.source = source;
+            this.owner = owner;
+            this.genes = new int[matches];
+            this.cells = new int[matches];
+            this.cellCount = new int[cells];
+            this.courtTotal = new int[courts];
+            this.occupied = new long[courts];
+            this.repeated = new long[courts];
+            this.courtStreak = new int[courts];
+            this.dirtyCourt = new boolean[courts];
+            this.priorityOnTarget = new int[rules];
+        }
+
+        // Copia los arreglos del otro estado en los propios (mismas dimensiones: mismo evaluador)
+        private void copyFrom(State other) {
+            System.arraycopy(other.genes, 0, genes, 0, genes.length);
+            System.arraycopy(other.cells, 0, cells, 0, cells.length);
+            System.arraycopy(other.cellCount, 0, cellCount, 0, cellCount.length);
+            System.arraycopy(other.courtTotal, 0, courtTotal, 0, courtTotal.length);
+            System.arraycopy(other.occupied, 0, occupied, 0, occupied.length);
+            System.arraycopy(other.repeated, 0, repeated, 0, repeated.length);
+            System.arraycopy(other.courtStreak, 0, courtStreak, 0, courtStreak.length);
+            Arrays.fill(dirtyCourt, false);
+            System.arraycopy(other.priorityOnTarget, 0, priorityOnTarget, 0, priorityOnTarget.length);
+            this.overlaps = other.overlaps;
+            this.institutional = other.institutional;
+            this.category = other.category;
+        }
+
+        private void clear() {
+            Arrays.fill(cellCount, 0);
+            Arrays.fill(courtTotal, 0);
+            Arrays.fill(occupied, 0L);
+            Arrays.fill(repeated, 0L);
+            Arrays.fill(courtStreak, 0);
+            Arrays.fill(dirtyCourt, false);
+            Arrays.fill(priorityOnTarget, 0);
+            this.overlaps = 0;
+            this.institutional = 0;
+            this.category = 0;
+        }
+    }
+}
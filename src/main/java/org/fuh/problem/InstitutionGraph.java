@@ -0,0 +1,57 @@
+package org.fuh.problem;
+
+import org.fuh.model.CompiledInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grafo disperso de partidos que comparten institución (local o visitante).
+ * La relación no cambia durante la corrida, así que se arma una sola vez a partir
+ * de las listas de partidos por institución, sin comparar todos los pares.
+ */
+class InstitutionGraph {
+
+    final int[] edgeFrom;       // aristas (i < j)
+    final int[] edgeTo;
+    final int[][] neighbours;   // adyacencia por partido
+
+    InstitutionGraph(CompiledInstance instance) {
+        int n = instance.getNumberOfMatches();
+        int[] home = instance.getMatchHome();
+        int[] away = instance.getMatchAway();
+
+        // 1. Partidos por institución
+        List<List<Integer>> matchesByInstitution = new ArrayList<>();
+        for (int k = 0; k < instance.getNumberOfInstitutions(); k++) matchesByInstitution.add(new ArrayList<>());
+        for (int i = 0; i < n; i++) {
+            matchesByInstitution.get(home[i]).add(i);
+            if (away[i] != home[i]) matchesByInstitution.get(away[i]).add(i);
+        }
+
+        // 2. Vecinos sin duplicados (marca por partido)
+        int[] mark = new int[n];
+        Arrays.fill(mark, -1);
+        List<Integer> from = new ArrayList<>();
+        List<Integer> to = new ArrayList<>();
+        this.neighbours = new int[n][];
+
+        for (int i = 0; i < n; i++) {
+            List<Integer> adjacent = new ArrayList<>();
+            mark[i] = i;
+            for (int institution : new int[] { home[i], away[i] }) {
+                for (int j : matchesByInstitution.get(institution)) {
+                    if (mark[j] == i) continue;
+                    mark[j] = i;
+                    adjacent.add(j);
+                    if (j > i) { from.add(i); to.add(j); }
+                }
+            }
+            neighbours[i] = adjacent.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        this.edgeFrom = from.stream().mapToInt(Integer::intValue).toArray();
+        this.edgeTo = to.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
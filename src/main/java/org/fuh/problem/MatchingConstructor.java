@@ -0,0 +1,277 @@
+package org.fuh.problem;
+
+import org.fuh.model.CompiledInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Constructor factible para la restricción de superposición: asignar a cada partido una celda
+ * distinta entre sus opciones válidas es un emparejamiento bipartito partidos-celdas.
+ * Hopcroft-Karp lo resuelve en O(E·√V). Si el emparejamiento máximo no cubre todos los partidos,
+ * no existe fixture sin superposiciones. En ese caso se informa la región saturada (Hall): los
+ * partidos que compiten por las mismas celdas y las canchas de esas celdas.
+ * Un partido sin opciones válidas (ExcelLoader sólo lo advierte) queda sin celda y se informa
+ * aparte: la instancia es infactible y la solución no es válida para ese partido.
+ * La solución resultante se puede inyectar como semilla (setSeedSolution).
+ */
+public class MatchingConstructor {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final CompiledInstance instance;
+    private final int[][] validSlots;
+    private final int numberOfMatches;
+
+    private final int[] matchCell;    // celda asignada a cada partido, -1 si no tiene
+    private final int[] cellMatch;    // partido asignado a cada celda, -1 si está libre
+    private final int[] dist;
+    private final int[] queue;
+    private final int[] edge;         // próxima opción a probar por partido (DFS)
+    private final int[] stack;
+    private final int[] via;          // celda elegida en cada nivel de la pila
+
+    public MatchingConstructor(CompiledInstance instance) {
+        this.instance = instance;
+        this.validSlots = instance.getValidSlots();
+        this.numberOfMatches = validSlots.length;
+        this.matchCell = new int[numberOfMatches];
+        this.cellMatch = new int[instance.getNumberOfCells()];
+        this.dist = new int[numberOfMatches];
+        this.queue = new int[numberOfMatches];
+        this.edge = new int[numberOfMatches];
+        this.stack = new int[numberOfMatches + 1];
+        this.via = new int[numberOfMatches + 1];
+    }
+
+    /** Emparejamiento máximo y solución asociada (sin superposiciones si isOverlapFree()). */
+    public static Result build(FUHSchedulingProblem problem) {
+        MatchingConstructor constructor = new MatchingConstructor(problem.getInstance());
+        int size = constructor.maximumMatching();
+
+        FUHSolution solution = new FUHSolution(problem.variableBounds(),
+                problem.numberOfObjectives(), problem.numberOfConstraints());
+        int[] genes = solution.getGenes();
+        int[] load = new int[constructor.cellMatch.length];
+        List<Integer> unmatched = new ArrayList<>();
+        for (int m = 0; m < constructor.numberOfMatches; m++) {
+            int cell = constructor.matchCell[m];
+            if (cell >= 0) {
+                genes[m] = constructor.instance.optionOf(m, cell);
+                load[cell]++;
+            } else {
+                unmatched.add(m);
+            }
+        }
+
+        // Los partidos sin celda van a su opción menos cargada (serán las únicas superposiciones);
+        // los que no tienen ninguna opción quedan en el índice 0 y se informan en el resultado
+        for (int m : unmatched) {
+            int[] options = constructor.validSlots[m];
+            if (options.length == 0) continue;
+            int best = 0;
+            for (int option = 1; option < options.length; option++) {
+                if (load[options[option]] < load[options[best]]) best = option;
+            }
+            genes[m] = best;
+            load[options[best]]++;
+        }
+        return constructor.result(solution, size, unmatched);
+    }
+
+    // =========================================================
+    // HOPCROFT-KARP
+    // =========================================================
+
+    private int maximumMatching() {
+        Arrays.fill(matchCell, -1);
+        Arrays.fill(cellMatch, -1);
+
+        // Arranque greedy: la primera celda libre de cada partido
+        int size = 0;
+        for (int m = 0; m < numberOfMatches; m++) {
+            for (int cell : validSlots[m]) {
+                if (cellMatch[cell] < 0) {
+                    matchCell[m] = cell;
+                    cellMatch[cell] = m;
+                    size++;
+                    break;
+                }
+            }
+        }
+
+        // Fases: BFS por capas desde los partidos libres y caminos aumentantes disjuntos (DFS)
+        while (size < numberOfMatches && layer()) {
+            Arrays.fill(edge, 0);
+            for (int m = 0; m < numberOfMatches; m++) {
+                if (matchCell[m] < 0 && augment(m)) size++;
+            }
+        }
+        return size;
+    }
+
+    // true si existe algún camino aumentante
+    private boolean layer() {
+        int head = 0, tail = 0;
+        for (int m = 0; m < numberOfMatches; m++) {
+            if (matchCell[m] < 0) {
+                dist[m] = 0;
+                queue[tail++] = m;
+            } else {
+                dist[m] = INF;
+            }
+        }
+        boolean found = false;
+        while (head < tail) {
+            int m = queue[head++];
+            for (int cell : validSlots[m]) {
+                int owner = cellMatch[cell];
+                if (owner < 0) {
+                    found = true;
+                } else if (dist[owner] == INF) {
+                    dist[owner] = dist[m] + 1;
+                    queue[tail++] = owner;
+                }
+            }
+        }
+        return found;
+    }
+
+    // DFS iterativo por las capas (sin recursión: los caminos pueden ser largos)
+    private boolean augment(int root) {
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int m = stack[top - 1];
+            int[] options = validSlots[m];
+            if (edge[m] == options.length) {
+                dist[m] = INF;   // sin salida: no se vuelve a visitar en esta fase
+                top--;
+                continue;
+            }
+            int cell = options[edge[m]++];
+            int owner = cellMatch[cell];
+            if (owner < 0) {
+                via[top - 1] = cell;
+                for (int level = top - 1; level >= 0; level--) {
+                    matchCell[stack[level]] = via[level];
+                    cellMatch[via[level]] = stack[level];
+                }
+                return true;
+            }
+            if (dist[owner] == dist[m] + 1) {
+                via[top - 1] = cell;
+                stack[top++] = owner;
+            }
+        }
+        return false;
+    }
+
+    // =========================================================
+    // DIAGNÓSTICO
+    // =========================================================
+
+    private Result result(FUHSolution solution, int size, List<Integer> unmatched) {
+        if (unmatched.isEmpty()) return new Result(instance, solution, size, new int[0], new int[0], 0, new int[0]);
+
+        // Región de Hall: lo alcanzable por caminos alternantes desde los partidos sin celda.
+        // Todas sus celdas están ocupadas por partidos de la región, que tiene más partidos que celdas.
+        boolean[] seenMatch = new boolean[numberOfMatches];
+        boolean[] seenCell = new boolean[cellMatch.length];
+        int head = 0, tail = 0;
+        for (int m : unmatched) {
+            seenMatch[m] = true;
+            queue[tail++] = m;
+        }
+        int cells = 0;
+        int[] cellsPerCourt = new int[instance.getNumberOfCourts()];
+        while (head < tail) {
+            int m = queue[head++];
+            for (int cell : validSlots[m]) {
+                if (seenCell[cell]) continue;
+                seenCell[cell] = true;
+                cells++;
+                cellsPerCourt[instance.courtOf(cell)]++;
+                int owner = cellMatch[cell];
+                if (owner >= 0 && !seenMatch[owner]) {
+                    seenMatch[owner] = true;
+                    queue[tail++] = owner;
+                }
+            }
+        }
+
+        int[] unmatchedMatches = unmatched.stream().mapToInt(Integer::intValue).toArray();
+        int[] withoutOptions = unmatched.stream().filter(m -> validSlots[m].length == 0)
+                .mapToInt(Integer::intValue).toArray();
+        return new Result(instance, solution, size, unmatchedMatches, withoutOptions, tail, cellsPerCourt);
+    }
+
+    /** Resultado del constructor: la solución y, si no es factible, el diagnóstico. */
+    public static class Result {
+        private final CompiledInstance instance;
+        private final FUHSolution solution;
+        private final int matchingSize;
+        private final int[] unmatchedMatches;
+        private final int[] matchesWithoutOptions;
+        private final int saturatedMatches;
+        private final int[] saturatedCellsPerCourt;
+
+        Result(CompiledInstance instance, FUHSolution solution, int matchingSize, int[] unmatchedMatches,
+               int[] matchesWithoutOptions, int saturatedMatches, int[] saturatedCellsPerCourt) {
+            this.instance = instance;
+            this.solution = solution;
+            this.matchingSize = matchingSize;
+            this.unmatchedMatches = unmatchedMatches;
+            this.matchesWithoutOptions = matchesWithoutOptions;
+            this.saturatedMatches = saturatedMatches;
+            this.saturatedCellsPerCourt = saturatedCellsPerCourt;
+        }
+
+        /** Solución del emparejamiento; no es válida si hay partidos sin opciones (ver getMatchesWithoutOptions). */
+        public FUHSolution getSolution() { return solution; }
+        public int getMatchingSize() { return matchingSize; }
+        public boolean isOverlapFree() { return unmatchedMatches.length == 0; }
+
+        /** Partidos que no entran en ningún emparejamiento máximo junto con los demás. */
+        public int[] getUnmatchedMatches() { return unmatchedMatches.clone(); }
+
+        /** Partidos sin ninguna cancha/horario válido: el caso infactible más directo. */
+        public int[] getMatchesWithoutOptions() { return matchesWithoutOptions.clone(); }
+
+        /** Partidos de la región saturada (compiten por las mismas celdas). */
+        public int getSaturatedMatches() { return saturatedMatches; }
+
+        /** Canchas de la región saturada, de mayor a menor cantidad de celdas disputadas. */
+        public int[] getBottleneckCourts() {
+            List<Integer> courts = new ArrayList<>();
+            for (int c = 0; c < saturatedCellsPerCourt.length; c++) if (saturatedCellsPerCourt[c] > 0) courts.add(c);
+            courts.sort((a, b) -> Integer.compare(saturatedCellsPerCourt[b], saturatedCellsPerCourt[a]));
+            return courts.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /** Resumen legible para los runners. */
+        public String summary() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Emparejamiento: %d de %d partidos", matchingSize, instance.getNumberOfMatches()));
+            if (isOverlapFree()) return sb.append(" (sin superposiciones)").toString();
+
+            for (int m : matchesWithoutOptions) {
+                sb.append(String.format("%nPartido %d (%s vs %s, %s) sin canchas válidas", m + 1,
+                        instance.getInstitutionName(instance.getMatchHome()[m]),
+                        instance.getInstitutionName(instance.getMatchAway()[m]),
+                        instance.getCategoryName(instance.getMatchCategory()[m])));
+            }
+            if (matchesWithoutOptions.length == unmatchedMatches.length) return sb.toString();
+
+            int saturatedCells = Arrays.stream(saturatedCellsPerCourt).sum();
+            sb.append(String.format("%n%d partidos compiten por %d slots (faltan %d):",
+                    saturatedMatches, saturatedCells, unmatchedMatches.length));
+            for (int court : getBottleneckCourts()) {
+                sb.append(String.format("%n   • %s: %d slots saturados",
+                        instance.getCourtName(court), saturatedCellsPerCourt[court]));
+            }
+            return sb.toString();
+        }
+    }
+}
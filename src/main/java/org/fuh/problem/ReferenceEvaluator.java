@@ -0,0 +1,159 @@
+package org.fuh.problem;
+
+import org.fuh.model.*;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluador original, directo sobre los objetos del modelo (pares O(n²), cadenas y listas).
+ * No se usa en las corridas: es la semántica de referencia contra la que el modo
+ * verificación contrasta la evaluación fusionada y la incremental.
+ */
+class ReferenceEvaluator {
+
+    private final List<List<Slot>> validSlotsPerMatch;
+    private final List<MatchInfo> matchInfos;
+    private final Map<String, CourtConfig> courtConfigs;
+    private final List<InstitutionPriority> priorities;
+    private final List<CategoryBlock> categoryBlocks;
+    private final int numberOfMatches;
+
+    ReferenceEvaluator(
+            List<List<Slot>> validSlotsPerMatch,
+            List<MatchInfo> matchInfos,
+            Map<String, CourtConfig> courtConfigs,
+            List<InstitutionPriority> priorities,
+            List<CategoryBlock> categoryBlocks) {
+
+        this.validSlotsPerMatch = validSlotsPerMatch;
+        this.matchInfos = matchInfos;
+        this.courtConfigs = courtConfigs;
+        this.priorities = priorities;
+        this.categoryBlocks = categoryBlocks;
+        this.numberOfMatches = validSlotsPerMatch.size();
+    }
+
+    void evaluate(IntegerSolution solution, double[] objectives, double[] constraints) {
+        Slot[] assignments = decode(solution);
+        int constraintIndex = 0;
+
+        // --- RESTRICCIONES DURAS ---
+        double overlaps = countOverlaps(assignments);
+        constraints[constraintIndex++] = (overlaps == 0) ? 0.0 : -overlaps; // Superposición
+
+        for (CourtConfig court : courtConfigs.values()) {
+            double violation = checkMaxContinuousHours(assignments, court);
+            constraints[constraintIndex++] = (violation == 0) ? 0.0 : -violation;
+        }
+
+        for (InstitutionPriority rule : priorities) {
+            double violation = checkPriorityQuota(assignments, rule);
+            constraints[constraintIndex++] = (violation == 0) ? 0.0 : -violation;
+        }
+
+        // --- OBJETIVOS (Blandas) ---
+        objectives[0] = calculateInstitutionalContinuity(assignments);
+        objectives[1] = calculateCategoryContinuity(assignments);
+    }
+
+    private Slot[] decode(IntegerSolution solution) {
+        Slot[] assignments = new Slot[numberOfMatches];
+        for (int i = 0; i < numberOfMatches; i++) {
+            int slotIndex = solution.variables().get(i);
+            assignments[i] = validSlotsPerMatch.get(i).get(slotIndex);
+        }
+        return assignments;
+    }
+
+    private double countOverlaps(Slot[] assignments) {
+        int overlaps = 0;
+        for (int i = 0; i < numberOfMatches; i++) {
+            for (int j = i + 1; j < numberOfMatches; j++) {
+                if (assignments[i].equals(assignments[j])) overlaps++;
+            }
+        }
+        return overlaps;
+    }
+
+    private double calculateInstitutionalContinuity(Slot[] assignments) {
+        double totalPenalty = 0.0;
+        for (int i = 0; i < numberOfMatches; i++) {
+            MatchInfo infoA = matchInfos.get(i);
+            Slot slotA = assignments[i];
+            for (int j = i + 1; j < numberOfMatches; j++) {
+                MatchInfo infoB = matchInfos.get(j);
+                Slot slotB = assignments[j];
+                if (infoA.sharesInstitutionWith(infoB) && slotA.getCourtId().equals(slotB.getCourtId())) {
+                    int diff = Math.abs(slotA.getTimeSlotId() - slotB.getTimeSlotId());
+                    if (diff > 1) totalPenalty += (diff - 1);
+                }
+            }
+        }
+        return totalPenalty;
+    }
+
+    private double calculateCategoryContinuity(Slot[] assignments) {
+        double totalPenalty = 0.0;
+        for (int i = 0; i < numberOfMatches; i++) {
+            String catA = matchInfos.get(i).getCategory();
+            Slot slotA = assignments[i];
+            for (int j = i + 1; j < numberOfMatches; j++) {
+                String catB = matchInfos.get(j).getCategory();
+                Slot slotB = assignments[j];
+                if (slotA.getCourtId().equals(slotB.getCourtId())) {
+                    if (isSameBlock(catA, catB)) {
+                        int diff = Math.abs(slotA.getTimeSlotId() - slotB.getTimeSlotId());
+                        if (diff > 1) totalPenalty += (diff - 1);
+                    }
+                }
+            }
+        }
+        return totalPenalty;
+    }
+
+    private boolean isSameBlock(String cat1, String cat2) {
+        if (cat1.equals(cat2)) return true;
+        for (CategoryBlock block : categoryBlocks) {
+            if (block.match(cat1, cat2)) return true;
+        }
+        return false;
+    }
+
+    private double checkMaxContinuousHours(Slot[] assignments, CourtConfig court) {
+        List<Integer> times = new ArrayList<>();
+        for (Slot s : assignments) {
+            if (s.getCourtId().equals(court.getId())) times.add(s.getTimeSlotId());
+        }
+        if (times.size() <= 1) return 0.0;
+        Collections.sort(times);
+        int currentStreak = 1;
+        int maxStreakFound = 1;
+        for (int i = 1; i < times.size(); i++) {
+            if (times.get(i) == times.get(i - 1) + 1) currentStreak++;
+            else currentStreak = 1;
+            maxStreakFound = Math.max(maxStreakFound, currentStreak);
+        }
+        if (maxStreakFound > court.getMaxContinuousHours()) return (maxStreakFound - court.getMaxContinuousHours());
+        return 0.0;
+    }
+
+    private double checkPriorityQuota(Slot[] assignments, InstitutionPriority rule) {
+        int totalMatchesOfInst = 0;
+        int matchesOnTargetCourt = 0;
+        for (int i = 0; i < numberOfMatches; i++) {
+            MatchInfo info = matchInfos.get(i);
+            if (info.getHomeInstitution().equals(rule.getInstitution()) || info.getAwayInstitution().equals(rule.getInstitution())) {
+                totalMatchesOfInst++;
+                if (assignments[i].getCourtId().equals(rule.getTargetCourtId())) matchesOnTargetCourt++;
+            }
+        }
+        if (totalMatchesOfInst == 0) return 0.0;
+        double actualPct = (double) matchesOnTargetCourt / totalMatchesOfInst;
+        if (actualPct < rule.getMinPercentage()) return (rule.getMinPercentage() - actualPct) * 100;
+        return 0.0;
+    }
+}
@@ -0,0 +1,91 @@
+package org.fuh.problem;
+
+import org.fuh.model.CompiledInstance;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Smart Random: recorre los partidos en orden aleatorio y asigna a cada uno una de sus
+ * opciones libres, también en orden aleatorio (si no queda ninguna libre, la primera del orden).
+ * La ocupación es un bitmap de celdas y las permutaciones usan buffers primitivos por hilo,
+ * así que generar un individuo sólo escribe en el arreglo de genes.
+ * El generador se recibe como función: random(bound) devuelve un entero en [0, bound).
+ * Con mezcla parcial las opciones se sortean de a una (Fisher-Yates hacia adelante) hasta dar
+ * con una libre: misma distribución, pero menos llamadas al generador que mezclar todas.
+ */
+class SmartRandomInitializer {
+
+    private final int[][] validSlots;
+    private final ThreadLocal<Scratch> scratch;
+
+    SmartRandomInitializer(CompiledInstance instance) {
+        this.validSlots = instance.getValidSlots();
+        int maxOptions = 0;
+        for (int[] options : validSlots) maxOptions = Math.max(maxOptions, options.length);
+        int words = (instance.getNumberOfCells() + 63) >>> 6;
+        int matches = validSlots.length;
+        int optionsLength = maxOptions;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(words, matches, optionsLength));
+    }
+
+    void fill(int[] genes, IntUnaryOperator random, boolean partialShuffle) {
+        Scratch s = scratch.get();
+        long[] occupied = s.occupied;
+        Arrays.fill(occupied, 0L);
+        int[] matchOrder = s.matchOrder;
+        shuffleRange(matchOrder, matchOrder.length, random);
+
+        for (int matchIndex : matchOrder) {
+            int[] options = validSlots[matchIndex];
+            int[] optionIndices = s.optionOrder;
+            if (partialShuffle) {
+                for (int k = 0; k < options.length; k++) optionIndices[k] = k;
+            } else {
+                shuffleRange(optionIndices, options.length, random);
+            }
+
+            int selectedSlotIndex = -1;
+            for (int k = 0; k < options.length; k++) {
+                if (partialShuffle) {
+                    int j = k + random.applyAsInt(options.length - k);
+                    int tmp = optionIndices[k];
+                    optionIndices[k] = optionIndices[j];
+                    optionIndices[j] = tmp;
+                }
+                int cell = options[optionIndices[k]];
+                long bit = 1L << cell;
+                if ((occupied[cell >>> 6] & bit) == 0) {
+                    occupied[cell >>> 6] |= bit;
+                    selectedSlotIndex = optionIndices[k];
+                    break;
+                }
+            }
+            // Sin opciones libres: la primera del orden aleatorio
+            genes[matchIndex] = (selectedSlotIndex >= 0) ? selectedSlotIndex : optionIndices[0];
+        }
+    }
+
+    // Permutación de 0..size-1 (Fisher-Yates) en los primeros size lugares del buffer
+    private static void shuffleRange(int[] values, int size, IntUnaryOperator random) {
+        for (int i = 0; i < size; i++) values[i] = i;
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.applyAsInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private static final class Scratch {
+        final long[] occupied;
+        final int[] matchOrder;
+        final int[] optionOrder;
+
+        Scratch(int words, int matches, int maxOptions) {
+            this.occupied = new long[words];
+            this.matchOrder = new int[matches];
+            this.optionOrder = new int[maxOptions];
+        }
+    }
+}
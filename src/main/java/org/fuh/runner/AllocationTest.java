@@ -0,0 +1,150 @@
+package org.fuh.runner;
+
+import org.fuh.io.ExcelLoader;
+import org.fuh.model.CompiledInstance;
+import org.fuh.problem.FUHSchedulingProblem;
+import org.fuh.problem.FUHSolution;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Prueba de memoria del camino caliente: mide con ThreadMXBean los bytes reservados por
+ * evaluación (después del calentamiento) y termina con código 1 si alguno es mayor que cero.
+ * Modos: evaluación completa, incremental sobre la misma solución, aciertos de caché y
+ * generaciones de hijos recién copiados con evaluación incremental y caché (como en la
+ * calibración: estados reciclados entre generaciones y fallos de caché que reutilizan entradas).
+ */
+public class AllocationTest {
+
+    private static final String EXCEL_FILE_PATH = "input_v5.xlsx";
+    private static final int SOLUTIONS = 64;
+    private static final int WARMUP_ROUNDS = 300;
+    private static final int MEASURED_ROUNDS = 100;
+    private static final int ATTEMPTS = 3;
+    private static final int MUTATED_GENES = 2;   // genes que cambia cada hijo respecto de su padre
+    private static final Runnable NO_SETUP = () -> { };
+
+    public static void main(String[] args) {
+        String path = (args.length > 0) ? args[0] : EXCEL_FILE_PATH;
+        System.out.println("==========================================");
+        System.out.println("   PRUEBA DE ASIGNACIONES POR EVALUACIÓN");
+        System.out.println("==========================================\n");
+
+        try {
+            System.out.println("Leyendo archivo: " + path + " ...");
+            ExcelLoader.DataResult data = new ExcelLoader().loadFromExcel(path);
+            boolean ok = run(data.compile());
+            System.out.println(ok ? "\n✅ Camino caliente sin asignaciones." : "\n❌ El camino caliente reserva memoria.");
+            System.exit(ok ? 0 : 1);
+        } catch (Exception e) {
+            System.err.println("❌ Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /** Corre los cuatro modos sobre la instancia; devuelve false si alguno reserva memoria. */
+    public static boolean run(CompiledInstance instance) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("⚠️ La JVM no soporta medir memoria por hilo.");
+            return false;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // Los bucles son indexados: un for-each reservaría un iterador por ronda
+        // 1. Completa
+        FUHSchedulingProblem full = new FUHSchedulingProblem(instance);
+        List<IntegerSolution> solutions = new ArrayList<>();
+        for (int k = 0; k < SOLUTIONS; k++) solutions.add(full.createSolution());
+        boolean ok = report("Completa", measure(threads, NO_SETUP, () -> {
+            for (int k = 0; k < SOLUTIONS; k++) full.evaluate(solutions.get(k));
+        }));
+
+        // 2. Incremental: una misma solución recorre los genotipos (movimientos en el lugar)
+        FUHSchedulingProblem incremental = new FUHSchedulingProblem(instance);
+        incremental.setIncrementalEvaluation(true);
+        IntegerSolution walker = incremental.createSolution();
+        int n = walker.variables().size();
+        ok &= report("Incremental", measure(threads, NO_SETUP, () -> {
+            for (int k = 0; k < SOLUTIONS; k++) {
+                List<Integer> genes = solutions.get(k).variables();
+                for (int i = 0; i < n; i++) walker.variables().set(i, genes.get(i));
+                incremental.evaluate(walker);
+            }
+        }));
+
+        // 3. Aciertos de caché (los fallos del calentamiento llenan la caché)
+        FUHSchedulingProblem cached = new FUHSchedulingProblem(instance);
+        cached.setEvaluationCache(2 * SOLUTIONS);
+        ok &= report("Caché", measure(threads, NO_SETUP, () -> {
+            for (int k = 0; k < SOLUTIONS; k++) cached.evaluate(solutions.get(k));
+        }));
+
+        // 4. Hijos: cada ronda copia y muta a la generación anterior (fuera de la medición) y
+        //    evalúa a los hijos nuevos con caché llena, reciclando al cerrar la generación
+        FUHSchedulingProblem generational = new FUHSchedulingProblem(instance);
+        generational.setIncrementalEvaluation(true);
+        generational.setEvaluationCache(SOLUTIONS);
+        List<IntegerSolution> children = new ArrayList<>();
+        for (int k = 0; k < SOLUTIONS; k++) children.add(generational.evaluate(generational.createSolution()));
+        int[][] options = instance.getValidSlots();
+        SplittableRandom random = new SplittableRandom(n);
+        Runnable breed = () -> {
+            for (int k = 0; k < SOLUTIONS; k++) {
+                FUHSolution child = (FUHSolution) children.get(k).copy();
+                for (int m = 0; m < MUTATED_GENES; m++) {
+                    int match = random.nextInt(n);
+                    child.setGene(match, random.nextInt(options[match].length));
+                }
+                children.set(k, child);
+            }
+        };
+        ok &= report("Hijos+caché", measure(threads, breed, () -> {
+            for (int k = 0; k < SOLUTIONS; k++) generational.evaluate(children.get(k));
+            generational.recycleEvaluationStates(children);
+        }));
+        return ok;
+    }
+
+    /**
+     * Bytes por evaluación del hilo actual, descontando el costo de la propia medición.
+     * Se toma la mejor de varias ventanas: una reserva real del camino caliente aparece en
+     * todas, mientras que una desoptimización aislada del JIT sólo ensucia una.
+     */
+    private static double measure(com.sun.management.ThreadMXBean threads, Runnable setup, Runnable round) {
+        long id = Thread.currentThread().getId();
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            setup.run();
+            round.run();
+        }
+
+        long calibration = threads.getThreadAllocatedBytes(id);
+        long overhead = threads.getThreadAllocatedBytes(id) - calibration;
+
+        // La preparación de cada ronda (setup) queda fuera de la medición
+        long best = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < ATTEMPTS && best > 0; attempt++) {
+            long allocated = 0;
+            for (int r = 0; r < MEASURED_ROUNDS; r++) {
+                setup.run();
+                long before = threads.getThreadAllocatedBytes(id);
+                round.run();
+                allocated += threads.getThreadAllocatedBytes(id) - before - overhead;
+            }
+            best = Math.min(best, Math.max(0, allocated));
+        }
+        return best / (double) (MEASURED_ROUNDS * SOLUTIONS);
+    }
+
+    private static boolean report(String mode, double bytesPerEvaluation) {
+        System.out.printf("   %s %-12s %.2f bytes/evaluación%n",
+                bytesPerEvaluation > 0 ? "❌" : "✅", mode, bytesPerEvaluation);
+        return bytesPerEvaluation <= 0;
+    }
+}
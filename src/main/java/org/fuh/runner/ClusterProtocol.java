@@ -0,0 +1,134 @@
+package org.fuh.runner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Mensajes entre el coordinador (IslandCluster) y los trabajadores (IslandWorker).
+ * Cada mensaje es un byte de tipo, el largo del contenido (int) y el contenido.
+ * El coordinador reenvía los migrantes sin decodificarlos: la isla k envía a la k+1 (anillo).
+ */
+final class ClusterProtocol {
+
+    static final byte HELLO = 1;      // trabajador -> coordinador: partidos y celdas de su instancia
+    static final byte CONFIG = 2;     // coordinador -> trabajador: parámetros de la isla
+    static final byte MIGRANTS = 3;   // en ambos sentidos: genomas (GenomeCodec)
+    static final byte FRONT = 4;      // trabajador -> coordinador: reparaciones y población final
+
+    private ClusterProtocol() {
+    }
+
+    static final class Frame {
+        final byte type;
+        final byte[] payload;
+
+        Frame(byte type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    /** Escribe un mensaje completo; quien comparte el stream entre hilos debe sincronizar. */
+    static void write(DataOutputStream out, byte type, byte[] payload) throws IOException {
+        out.writeByte(type);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    static Frame read(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        return new Frame(type, payload);
+    }
+
+    static byte[] hello(int numberOfMatches, int numberOfCells) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(numberOfMatches);
+            out.writeInt(numberOfCells);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Contenido de FRONT: movimientos de FeasibilityRepair (long) y la población (GenomeCodec). */
+    static byte[] front(long repairs, byte[] population) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(repairs);
+            out.write(population);
+        }
+        return bytes.toByteArray();
+    }
+
+    static long frontRepairs(byte[] payload) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(payload)).readLong();
+    }
+
+    static byte[] frontPopulation(byte[] payload) {
+        return Arrays.copyOfRange(payload, Long.BYTES, payload.length);
+    }
+
+    /** Parámetros que el coordinador asigna a cada isla. */
+    static final class IslandConfig {
+        int index;
+        int islands;
+        long seed;
+        int populationSize;
+        int maxEvaluations;          // de esta isla
+        double crossoverProb;
+        double mutationProb;
+        int migrationInterval;
+        int migrants;
+        int evaluationCacheSize;     // 0 = sin caché
+        FUHRunner.VariationOptions variation = new FUHRunner.VariationOptions();
+
+        byte[] encode() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(index);
+                out.writeInt(islands);
+                out.writeLong(seed);
+                out.writeInt(populationSize);
+                out.writeInt(maxEvaluations);
+                out.writeDouble(crossoverProb);
+                out.writeDouble(mutationProb);
+                out.writeInt(migrationInterval);
+                out.writeInt(migrants);
+                out.writeBoolean(variation.geometricMutation);
+                out.writeBoolean(variation.occupancyAwareMutation);
+                out.writeDouble(variation.swapProbability);
+                out.writeBoolean(variation.feasibilityRepair);
+                out.writeBoolean(variation.parallelInitialization);
+                out.writeInt(evaluationCacheSize);
+            }
+            return bytes.toByteArray();
+        }
+
+        static IslandConfig decode(byte[] payload) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            IslandConfig config = new IslandConfig();
+            config.index = in.readInt();
+            config.islands = in.readInt();
+            config.seed = in.readLong();
+            config.populationSize = in.readInt();
+            config.maxEvaluations = in.readInt();
+            config.crossoverProb = in.readDouble();
+            config.mutationProb = in.readDouble();
+            config.migrationInterval = in.readInt();
+            config.migrants = in.readInt();
+            config.variation.geometricMutation = in.readBoolean();
+            config.variation.occupancyAwareMutation = in.readBoolean();
+            config.variation.swapProbability = in.readDouble();
+            config.variation.feasibilityRepair = in.readBoolean();
+            config.variation.parallelInitialization = in.readBoolean();
+            config.evaluationCacheSize = in.readInt();
+            return config;
+        }
+    }
+}
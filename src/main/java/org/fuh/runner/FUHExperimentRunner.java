@@ -2,16 +2,38 @@ package org.fuh.runner;
 
 import org.fuh.io.ExcelLoader;
 import org.fuh.problem.FUHSchedulingProblem;
+import org.fuh.problem.MatchingConstructor;
 import org.fuh.runner.FUHRunner.ExperimentResult;
 import org.fuh.io.FixtureSeeder; // Necesario para cargar la solución inicial
-import org.fuh.model.Slot; // Necesario para tipado
+import org.fuh.model.CompiledInstance;
 import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.pseudorandom.impl.JavaRandomGenerator;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 /**
  * Clase que ejecuta una calibración paramétrica (Grid Search)
@@ -40,6 +62,30 @@ public class FUHExperimentRunner {
     // Semilla de JMetal para el control de la aleatoriedad de las operaciones
     private static final long ALGORITHM_TEST_SEED = 12345L; 
 
+    // Hilos para evaluar cada población (1 = secuencial; no cambia los resultados)
+    private static final int EVALUATION_THREADS = Runtime.getRuntime().availableProcessors();
+
+    // Corridas simultáneas de la grilla (1 = secuencial); los hilos de evaluación se reparten entre ellas
+    private static final int CALIBRATION_WORKERS = Runtime.getRuntime().availableProcessors();
+
+    // Modo racing (F-race): en vez de la grilla completa, elimina temprano las configuraciones malas
+    private static final boolean RACING = false;
+    private static final int RACING_MAX_BLOCKS = 20;        // pares (instancia, semilla) como máximo
+    private static final int RACING_FIRST_TEST = 5;         // bloques antes del primer test
+    private static final String[] RACING_EXTRA_INSTANCES = {}; // Excel adicionales (se alternan con la principal)
+
+    // Reanudación: CSV de una calibración interrumpida (null = calibración nueva; si no existe, la
+    // calibración no arranca). Las corridas ya registradas en su diario (<csv>.journal) se saltean;
+    // sólo aplica a la grilla completa (con RACING activo la calibración no arranca).
+    private static final String RESUME_RESULTS_FILE = null;
+
+    // Caché de evaluaciones por corrida (0 = sin caché); rinde sobre todo con Pm bajo
+    private static final int EVALUATION_CACHE_SIZE = 50000;
+
+    // Opciones de variación de todas las corridas: las de por defecto (operadores originales), así
+    // Pm significa lo mismo que en las calibraciones anteriores y los CSV siguen siendo comparables
+    private static final FUHRunner.VariationOptions VARIATION = new FUHRunner.VariationOptions();
+
     public static void main(String[] args) {
         
         System.out.println("╔══════════════════════════════════════════════╗");
@@ -53,6 +99,12 @@ public class FUHExperimentRunner {
         System.out.printf("Problema: %s\n", PROBLEM_NAME);
         System.out.printf("Total de Corridas estimadas: %d\n", totalRuns);
         System.out.println("------------------------------------------------");
+
+        // El racing no escribe en el diario: reanudarlo borraría sus filas y lo correría de nuevo
+        if (RACING && RESUME_RESULTS_FILE != null) {
+            System.err.println("❌ ERROR: La reanudación sólo aplica a la grilla completa (RACING está activo). Abortando.");
+            return;
+        }
         
         // 1. Cargar los datos del problema UNA sola vez
         ExcelLoader.DataResult data = loadDataFromExcel(EXCEL_FILE_PATH); 
@@ -62,82 +114,94 @@ public class FUHExperimentRunner {
             return;
         }
 
-        // 2. Cargar la Solución Inicial (Fixture Semilla) UNA sola vez
-        IntegerSolution fixedInitialSeed = loadAndVerifyInitialSeed(data);
-        
-        if (fixedInitialSeed == null) {
-            System.err.println("❌ ERROR: Falló la carga de la Solución Inicial. Abortando.");
+        // Compilamos la instancia UNA sola vez; cada corrida crea su propio problema sobre ella
+        CompiledInstance instance = data.compile();
+
+        // 2. Chequeo de factibilidad: sin emparejamiento completo ninguna corrida puede evitar superposiciones
+        MatchingConstructor.Result matching = MatchingConstructor.build(new FUHSchedulingProblem(instance));
+        System.out.println("🧩 " + matching.summary());
+        if (!matching.isOverlapFree()) {
+            System.err.println("❌ ERROR: La instancia no admite un fixture sin superposiciones. Abortando.");
             return;
         }
 
-        // 3. Preparar archivo de salida
-        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-        String resultsFile = "calibration_results_" + timestamp + ".csv";
-        initializeResultsFile(resultsFile);
+        // 3. Cargar la Solución Inicial (Fixture Semilla) UNA sola vez; sin archivo, la del emparejamiento
+        IntegerSolution loadedSeed = loadAndVerifyInitialSeed(data);
+        
+        if (loadedSeed == null) {
+            System.err.println("⚠️ Falló la carga de la Solución Inicial. Se usa la del emparejamiento.");
+        }
+        IntegerSolution fixedInitialSeed = (loadedSeed != null) ? loadedSeed : matching.getSolution();
+
+        // 4. Preparar archivo de salida (o retomar el de una calibración interrumpida)
+        String resultsFile;
+        boolean resuming = RESUME_RESULTS_FILE != null;
+        if (resuming && !new File(RESUME_RESULTS_FILE).exists()) {
+            System.err.println("❌ ERROR: No existe el archivo a reanudar: " + RESUME_RESULTS_FILE + ". Abortando.");
+            return;
+        }
+        if (resuming) {
+            resultsFile = RESUME_RESULTS_FILE;
+        } else {
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+            resultsFile = "calibration_results_" + timestamp + ".csv";
+            initializeResultsFile(resultsFile);
+        }
+        RunJournal journal = new RunJournal(resultsFile + ".journal");
+        Set<String> finished;
+        try {
+            finished = journal.load();
+            // Filas de corridas que no llegaron al diario (cortadas a mitad de escritura) se descartan
+            // y las demás vuelven al orden de la grilla
+            if (resuming) rewriteInGridOrder(resultsFile, finished);
+        } catch (IOException e) {
+            System.err.println("❌ ERROR: No se pudo leer el diario de corridas: " + e.getMessage() + ". Abortando.");
+            return;
+        }
+        if (resuming) {
+            System.out.printf("♻️ Reanudando %s: %d corridas ya terminadas%n", resultsFile, finished.size());
+        }
         
         int configId = 0;
         long startTimeTotal = System.currentTimeMillis();
         
-        // 4. Bucles anidados (Grid Search)
+        // 5. Bucles anidados (Grid Search): primero se arma la lista de corridas, en orden
+        List<RunSpec> runs = new ArrayList<>();
         for (int populationSize : POPULATION_SIZES) {
             for (double crossoverProb : CROSSOVER_PROBS) {
                 for (double mutationProb : MUTATION_PROBS) {
                     for (int generations : GENERATIONS) { 
-                        
                         configId++;
-                        String configLabel = String.format("C%03d", configId);
-                        int maxEvaluations = populationSize * generations; 
-
-                        System.out.printf("\n---> Config %s: Pop=%d, Pc=%.2f, Pm=%.4f, Gen=%d ... \n", 
-                                          configLabel, populationSize, crossoverProb, mutationProb, generations);
-                        
-                        // 5. Repeticiones
+                        // 6. Repeticiones
                         for (int rep = 1; rep <= REPETITIONS; rep++) {
-                            
                             // La semilla de JMetal para la aleatoriedad de los operadores
                             // Usaremos una seed única para cada (config, rep) para la reproducibilidad de la corrida.
                             long runSeed = ALGORITHM_TEST_SEED + (long) configId * 1000 + rep; 
-                            
-                            try {
-                                // A. Instanciamos el problema NUEVO para cada corrida
-                                FUHSchedulingProblem problem = new FUHSchedulingProblem(
-                                    data.validSlots, 
-                                    data.matchInfos, 
-                                    data.courtConfigs, 
-                                    data.priorities, 
-                                    data.categoryBlocks
-                                );
-
-                                // B. INYECTAR LA SOLUCIÓN INICIAL FIJA
-                                problem.setSeedSolution(fixedInitialSeed);
-                                
-                                // C. Ejecutamos usando el método en FUHRunner
-                                ExperimentResult result = FUHRunner.runSingleNSGAII(
-                                    problem,
-                                    data.validSlots,
-                                    populationSize,
-                                    crossoverProb,
-                                    mutationProb,
-                                    maxEvaluations,
-                                    runSeed // Seed de JMetal para el control de operadores
-                                );
-                                
-                                // D. Guardamos resultados
-                                saveRawData(resultsFile, PROBLEM_NAME, configId, rep, populationSize, 
-                                            crossoverProb, mutationProb, generations, runSeed, result);
-                                
-                                System.out.print("✅");
-                                
-                            } catch (Exception e) {
-                                System.err.printf("\n    ❌ Error en %s, Rep %d: %s\n", configLabel, rep, e.getMessage());
-                                e.printStackTrace();
-                            }
+                            runs.add(new RunSpec(runs.size(), configId, rep, populationSize, crossoverProb, mutationProb, generations, runSeed));
                         }
-                        System.out.println(" (Finalizadas " + REPETITIONS + " repeticiones)"); 
                     }
                 }
             }
         }
+
+        // 7. Ejecución: grilla completa (sin las corridas ya registradas) o racing
+        if (RACING) {
+            try {
+                runRacing(runs, instance, fixedInitialSeed, resultsFile);
+            } catch (Exception e) {
+                System.err.println("\n❌ Error en el racing: " + e.getMessage());
+                e.printStackTrace();
+            }
+        } else {
+            runs.removeIf(run -> finished.contains(run.journalEntry()));
+            runGrid(runs, instance, fixedInitialSeed, resultsFile, journal);
+            // Las corridas se guardan a medida que terminan: el CSV final queda en el orden de la grilla
+            try {
+                rewriteInGridOrder(resultsFile, journal.load());
+            } catch (IOException e) {
+                System.err.println("⚠️ No se pudo ordenar el CSV según la grilla: " + e.getMessage());
+            }
+        }
         
         long endTimeTotal = System.currentTimeMillis();
         long durationTotal = (endTimeTotal - startTimeTotal) / 1000;
@@ -153,6 +217,200 @@ public class FUHExperimentRunner {
     // Métodos Auxiliares
     // =========================================================
     
+    /**
+     * Grilla completa: con varios workers las corridas van en paralelo y cada una guarda sus filas y
+     * su entrada del diario apenas termina, así un corte no pierde corridas terminadas que esperaban
+     * a una más lenta. Los resultados son los mismos que en modo secuencial; el orden del CSV lo
+     * rehace rewriteInGridOrder.
+     */
+    private static void runGrid(List<RunSpec> runs, CompiledInstance instance, IntegerSolution fixedInitialSeed,
+                                String resultsFile, RunJournal journal) {
+        int workers = Math.max(1, Math.min(CALIBRATION_WORKERS, runs.size()));
+        int evaluationThreads = Math.max(1, EVALUATION_THREADS / workers);
+        ThreadLocalRandomGenerator dispatcher = ThreadLocalRandomGenerator.install();
+        Object resultsLock = new Object();
+        List<FutureTask<ExperimentResult>> tasks = new ArrayList<>();
+        for (RunSpec run : runs) {
+            tasks.add(new FutureTask<>(() -> {
+                ExperimentResult result = runIsolated(dispatcher, run, instance, fixedInitialSeed, evaluationThreads);
+                // D. Guardamos resultados; recién con las filas en disco la corrida va al diario
+                synchronized (resultsLock) {
+                    saveRawData(resultsFile, PROBLEM_NAME, run.configId, run.rep, run.populationSize,
+                                run.crossoverProb, run.mutationProb, run.generations, run.seed, result);
+                    journal.record(run.journalEntry());
+                }
+                return result;
+            }));
+        }
+        ExecutorService executor = (workers > 1) ? Executors.newFixedThreadPool(workers) : null;
+        if (executor != null) {
+            System.out.printf("⚙️ Calibración en paralelo: %d corridas simultáneas%n", workers);
+            for (FutureTask<ExperimentResult> task : tasks) executor.execute(task);
+        }
+
+        try {
+            int lastConfig = -1;
+            for (int i = 0; i < runs.size(); i++) {
+                RunSpec run = runs.get(i);
+                String configLabel = String.format("C%03d", run.configId);
+                if (run.configId != lastConfig) {
+                    lastConfig = run.configId;
+                    System.out.printf("\n---> Config %s: Pop=%d, Pc=%.2f, Pm=%.4f, Gen=%d ... \n", 
+                                      configLabel, run.populationSize, run.crossoverProb, run.mutationProb, run.generations);
+                }
+
+                FutureTask<ExperimentResult> task = tasks.get(i);
+                if (executor == null) task.run();
+                try {
+                    task.get();
+                    System.out.print("✅");
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        System.err.printf("\n    ❌ Error al guardar %s, Rep %d: %s\n", configLabel, run.rep, e.getCause().getMessage());
+                    } else {
+                        System.err.printf("\n    ❌ Error en %s, Rep %d: %s\n", configLabel, run.rep, e.getCause().getMessage());
+                        e.getCause().printStackTrace();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    System.err.println("❌ Calibración interrumpida.");
+                    break;
+                }
+                if (run.rep == REPETITIONS) System.out.println(" (Finalizadas " + REPETITIONS + " repeticiones)"); 
+            }
+        } finally {
+            if (executor != null) executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Racing (F-race): cada configuración se corre en bloques (instancia, semilla) crecientes y las
+     * peores se eliminan por test de Friedman + Conover. El bloque b usa la misma semilla que la
+     * repetición b+1 de la grilla. Informa las sobrevivientes y las evaluaciones ahorradas.
+     */
+    private static void runRacing(List<RunSpec> runs, CompiledInstance instance, IntegerSolution fixedInitialSeed,
+                                  String resultsFile) throws Exception {
+        List<RunSpec> candidates = new ArrayList<>();
+        for (RunSpec run : runs) if (run.rep == 1) candidates.add(run);
+
+        // Instancias del racing: la principal (con su semilla) y las extra (semilla por emparejamiento)
+        List<CompiledInstance> instances = new ArrayList<>();
+        List<IntegerSolution> seeds = new ArrayList<>();
+        instances.add(instance);
+        seeds.add(fixedInitialSeed);
+        for (String path : RACING_EXTRA_INSTANCES) {
+            ExcelLoader.DataResult extra = loadDataFromExcel(path);
+            if (extra == null) continue;
+            CompiledInstance compiled = extra.compile();
+            instances.add(compiled);
+            seeds.add(MatchingConstructor.build(new FUHSchedulingProblem(compiled)).getSolution());
+        }
+
+        long[] evaluations = new long[candidates.size()];
+        for (int c = 0; c < evaluations.length; c++) {
+            evaluations[c] = (long) candidates.get(c).populationSize * candidates.get(c).generations;
+        }
+        int workers = Math.max(1, Math.min(CALIBRATION_WORKERS, candidates.size()));
+        int evaluationThreads = Math.max(1, EVALUATION_THREADS / workers);
+        ThreadLocalRandomGenerator dispatcher = ThreadLocalRandomGenerator.install();
+        System.out.printf("🏎️ Racing: %d configuraciones, hasta %d bloques sobre %d instancias%n",
+                candidates.size(), RACING_MAX_BLOCKS, instances.size());
+
+        RacingCalibration racing = new RacingCalibration(evaluations, RACING_MAX_BLOCKS, (c, block) -> {
+            RunSpec base = candidates.get(c);
+            int rep = block + 1;
+            RunSpec run = new RunSpec(base.gridIndex, base.configId, rep, base.populationSize, base.crossoverProb,
+                    base.mutationProb, base.generations, ALGORITHM_TEST_SEED + (long) base.configId * 1000 + rep);
+            int index = block % instances.size();
+            ExperimentResult result = runIsolated(dispatcher, run, instances.get(index), seeds.get(index), evaluationThreads);
+            synchronized (FUHExperimentRunner.class) {
+                saveRawData(resultsFile, PROBLEM_NAME, run.configId, run.rep, run.populationSize,
+                            run.crossoverProb, run.mutationProb, run.generations, run.seed, result);
+            }
+            return result;
+        }, workers);
+        racing.setFirstTest(RACING_FIRST_TEST);
+        racing.setBlockListener((block, alive, eliminated) ->
+                System.out.printf("🏁 Bloque %d: %d configuraciones vivas%s%n", block + 1, alive,
+                        (eliminated > 0) ? String.format(" -> eliminadas %d", eliminated) : ""));
+        RacingCalibration.Result result = racing.race();
+
+        System.out.println("\n🏆 Configuraciones sobrevivientes (de mejor a peor):");
+        for (int k = 0; k < result.survivors.length; k++) {
+            RunSpec c = candidates.get(result.survivors[k]);
+            System.out.printf("   C%03d: Pop=%d, Pc=%.2f, Pm=%.4f, Gen=%d (rango medio %.2f)%n",
+                    c.configId, c.populationSize, c.crossoverProb, c.mutationProb, c.generations, result.meanRanks[k]);
+        }
+        System.out.printf("📉 Evaluaciones: %d de %d de la grilla completa en los mismos %d bloques (ahorro %.1f%%)%n",
+                result.evaluationsUsed, result.evaluationsFullGrid, result.blocks, result.getSavedFraction() * 100);
+    }
+
+    /** Una corrida de la grilla: posición en la grilla, configuración, repetición y semilla de JMetal. */
+    private static class RunSpec {
+        final int gridIndex;
+        final int configId;
+        final int rep;
+        final int populationSize;
+        final double crossoverProb;
+        final double mutationProb;
+        final int generations;
+        final long seed;
+
+        RunSpec(int gridIndex, int configId, int rep, int populationSize, double crossoverProb,
+                double mutationProb, int generations, long seed) {
+            this.gridIndex = gridIndex;
+            this.configId = configId;
+            this.rep = rep;
+            this.populationSize = populationSize;
+            this.crossoverProb = crossoverProb;
+            this.mutationProb = mutationProb;
+            this.generations = generations;
+            this.seed = seed;
+        }
+
+        String runId() {
+            return String.format("C%03d_R%02d", configId, rep);
+        }
+
+        /** Línea del diario: posición en la grilla y la corrida (config, rep, semilla). */
+        String journalEntry() {
+            return String.format("%d,%s,%d,%d,%d", gridIndex, runId(), configId, rep, seed);
+        }
+    }
+
+    /**
+     * Corre una configuración aislada del resto: problema, operadores y generador de JMetalRandom
+     * propios (el generador lo siembra runSingleNSGAII con la semilla de la corrida). Así el
+     * resultado no depende de qué otras corridas se ejecuten al mismo tiempo.
+     */
+    private static ExperimentResult runIsolated(ThreadLocalRandomGenerator dispatcher, RunSpec run,
+            CompiledInstance instance, IntegerSolution fixedInitialSeed, int evaluationThreads) throws Exception {
+        dispatcher.setForCurrentThread(new JavaRandomGenerator());
+        try {
+            // A. Instanciamos el problema NUEVO para cada corrida
+            FUHSchedulingProblem problem = new FUHSchedulingProblem(instance);
+            problem.setIncrementalEvaluation(true);
+            problem.setEvaluationCache(EVALUATION_CACHE_SIZE);
+
+            // B. INYECTAR LA SOLUCIÓN INICIAL FIJA (createSolution la copia)
+            problem.setSeedSolution(fixedInitialSeed);
+
+            // C. Ejecutamos usando el método en FUHRunner
+            return FUHRunner.runSingleNSGAII(
+                problem,
+                run.populationSize,
+                run.crossoverProb,
+                run.mutationProb,
+                run.populationSize * run.generations,
+                run.seed, // Seed de JMetal para el control de operadores
+                evaluationThreads,
+                VARIATION
+            );
+        } finally {
+            dispatcher.clearForCurrentThread();
+        }
+    }
+
     private static ExcelLoader.DataResult loadDataFromExcel(String filePath) {
         try {
             return FUHRunner.loadDataFromExcel(filePath); 
@@ -170,9 +428,7 @@ public class FUHExperimentRunner {
         System.out.println("⏳ Cargando solución inicial desde: " + INITIAL_SEED_PATH);
         try {
             // El problema necesita ser instanciado solo para validar la solución
-            FUHSchedulingProblem tempProblem = new FUHSchedulingProblem(
-                data.validSlots, data.matchInfos, data.courtConfigs, data.priorities, data.categoryBlocks
-            );
+            FUHSchedulingProblem tempProblem = new FUHSchedulingProblem(data.compile());
             
             IntegerSolution seed = FixtureSeeder.createSolutionFromExcel(
                     INITIAL_SEED_PATH, 
@@ -195,6 +451,47 @@ public class FUHExperimentRunner {
         }
     }
 
+    /**
+     * Reescribe el CSV dejando sólo el encabezado y las filas de corridas registradas en el diario,
+     * ordenadas por su posición en la grilla (las corridas en paralelo se guardan al terminar).
+     */
+    private static void rewriteInGridOrder(String fileName, Set<String> finished) throws IOException {
+        Map<String, Integer> gridIndex = new HashMap<>();
+        for (String entry : finished) {
+            String[] fields = entry.split(",");
+            try {
+                if (fields.length == 5) gridIndex.put(fields[1], Integer.parseInt(fields[0]));
+            } catch (NumberFormatException e) {
+                // Entrada de otro formato: la corrida se vuelve a correr
+            }
+        }
+
+        Path path = Paths.get(fileName);
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        List<String> rows = new ArrayList<>();
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comma = line.indexOf(',');
+            if (comma > 0 && gridIndex.containsKey(line.substring(0, comma))) rows.add(line);
+        }
+        // Orden estable: las filas de una misma corrida conservan su orden
+        rows.sort(Comparator.comparingInt(line -> gridIndex.get(line.substring(0, line.indexOf(',')))));
+        List<String> kept = new ArrayList<>();
+        if (!lines.isEmpty()) kept.add(lines.get(0));
+        kept.addAll(rows);
+        if (kept.equals(lines)) return;
+
+        Path temporary = Paths.get(fileName + ".tmp");
+        Files.write(temporary, kept, StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (kept.size() < lines.size()) {
+            System.out.printf("🧹 Descartadas %d filas de corridas sin terminar%n", lines.size() - kept.size());
+        }
+    }
+
     private static void initializeResultsFile(String fileName) {
         try (FileWriter writer = new FileWriter(fileName, false)) {
             writer.write("RunID,ConfigID,Repetition,Problema,PopSize,CrossoverProb,MutationProb,Generations,TiempoMs,SeedJMetal,SolutionID,Objetivo,Valor\n");
@@ -213,11 +510,13 @@ public class FUHExperimentRunner {
             double mutationProb, 
             int generations, 
             long seedJMetal, // La semilla usada por JMetal
-            ExperimentResult result) {
+            ExperimentResult result) throws IOException {
             
             String runId = String.format("C%03d_R%02d", configId, rep);
             
-            try (FileWriter writer = new FileWriter(fileName, true)) {
+            // fsync al final: las filas tienen que estar en disco antes de registrar la corrida
+            FileOutputStream stream = new FileOutputStream(fileName, true);
+            try (Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
                 long executionTimeMs = result.executionTimeMs;
                 int solutionId = 0; 
 
@@ -240,8 +539,8 @@ public class FUHExperimentRunner {
                         runId, configId, rep, problemName, popSize, crossoverProb, mutationProb, 
                         generations, executionTimeMs, seedJMetal, solutionId, sol.constraints()[0]));
                 }
-            } catch (IOException e) {
-                System.err.println("Error escritura CSV: " + e.getMessage());
+                writer.flush();
+                stream.getChannel().force(true);
             }
     }
 }
\ No newline at end of file
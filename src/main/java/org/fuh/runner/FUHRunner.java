@@ -2,19 +2,28 @@ package org.fuh.runner;
 
 import org.fuh.model.*;
 import org.fuh.io.ExcelLoader;
+import org.fuh.problem.EvaluationCache;
 import org.fuh.problem.FUHSchedulingProblem;
+import org.fuh.problem.FrontLocalSearch;
+import org.fuh.problem.MatchingConstructor;
 import org.uma.jmetal.algorithm.Algorithm;
-import org.uma.jmetal.algorithm.multiobjective.nsgaii.NSGAIIBuilder;
 import org.uma.jmetal.solution.integersolution.IntegerSolution;
 import org.fuh.operator.FUHCrossover;
 import org.fuh.operator.FUHMutation;
+import org.fuh.operator.FUHSwapMutation;
+import org.fuh.operator.FeasibilityRepair;
+import org.fuh.operator.MutationChain;
+import org.uma.jmetal.operator.mutation.MutationOperator;
 import org.uma.jmetal.util.comparator.dominanceComparator.DominanceComparator;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
 import org.fuh.io.FixtureSeeder; // Importar el Seeder
 
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FUHRunner {
 
@@ -24,12 +33,40 @@ public class FUHRunner {
     public static class ExperimentResult {
         public final List<IntegerSolution> solutions;
         public final long executionTimeMs;
+        public final long repairs;              // movimientos de FeasibilityRepair (0 si no se usó)
+        public final long localSearchImprovements; // movimientos aceptados por FrontLocalSearch
         public ExperimentResult(List<IntegerSolution> solutions, long executionTimeMs) {
+            this(solutions, executionTimeMs, 0);
+        }
+        public ExperimentResult(List<IntegerSolution> solutions, long executionTimeMs, long repairs) {
+            this(solutions, executionTimeMs, repairs, 0);
+        }
+        public ExperimentResult(List<IntegerSolution> solutions, long executionTimeMs, long repairs,
+                long localSearchImprovements) {
             this.solutions = solutions;
             this.executionTimeMs = executionTimeMs;
+            this.repairs = repairs;
+            this.localSearchImprovements = localSearchImprovements;
         }
     }
     
+    /** Opciones de inicialización y de los operadores de variación; los valores por defecto reproducen el comportamiento original. */
+    public static class VariationOptions {
+        public boolean geometricMutation = false;   // FUHMutation con salto geométrico
+        public boolean occupancyAwareMutation = false; // FUHMutation elige entre slots libres
+        public double swapProbability = 0.0;        // FUHSwapMutation por partido (0 = sin intercambios)
+        public boolean feasibilityRepair = false;   // Reparación greedy antes de evaluar
+        public long localSearchMillis = 0;          // Búsqueda local sobre el frente final (0 = sin pulir)
+        public boolean parallelInitialization = false; // Población inicial en paralelo (flujos por individuo)
+    }
+    
+    /** Modelo de islas: cantidad de poblaciones y migración entre ellas (en anillo). */
+    public static class IslandOptions {
+        public int islands = Runtime.getRuntime().availableProcessors(); // Una población por núcleo
+        public int migrationInterval = 25;          // Generaciones entre migraciones (0 = sin migrar)
+        public int migrants = 2;                    // Individuos no dominados que emigra cada isla
+    }
+    
     private static class FixtureRow {
         MatchInfo info;
         Slot slot;
@@ -43,7 +80,18 @@ public class FUHRunner {
     // 2. COMPARADOR MANUAL (GARANTIZA CUMPLIMIENTO DE RESTRICCIONES)
     // =========================================================
     public static class ManualComparator implements DominanceComparator<IntegerSolution> {
-        private static int debugCounter = 0; 
+        // Por instancia: cada corrida tiene su propio límite de logs
+        private final AtomicInteger debugCounter = new AtomicInteger(); 
+        private final boolean debug;
+
+        public ManualComparator() {
+            this(true);
+        }
+
+        /** Con debug = false no imprime las batallas (p. ej. al pulir el frente con búsqueda local). */
+        public ManualComparator(boolean debug) {
+            this.debug = debug;
+        }
         
         @Override
         public int compare(IntegerSolution s1, IntegerSolution s2) {
@@ -53,8 +101,7 @@ public class FUHRunner {
             boolean interestingCase = (v1 == 0 && v2 < 0) || (v1 < 0 && v2 == 0);
             
             // Log de debug limitado a 20 líneas para no saturar
-            if (interestingCase && debugCounter < 20) {
-                debugCounter++;
+            if (debug && interestingCase && debugCounter.getAndIncrement() < 20) {
                 System.out.println("\n⚔️ --- BATALLA DE SOLUCIONES ---");
                 System.out.printf("   🥊 S1: [Restr: %.1f | O1: %.1f | O2: %.1f]\n", v1, s1.objectives()[0], s1.objectives()[1]);
                 System.out.printf("   🥊 S2: [Restr: %.1f | O1: %.1f | O2: %.1f]\n", v2, s2.objectives()[0], s2.objectives()[1]);
@@ -73,9 +120,8 @@ public class FUHRunner {
 
             // Regla C: Válido vs Válido (Pareto)
             int result = compareObjectives(s1, s2);
-            if (v1 == 0 && v2 == 0 && result != 0 && debugCounter < 20) {
+            if (debug && v1 == 0 && v2 == 0 && result != 0 && debugCounter.getAndIncrement() < 20) {
                  System.out.println("   ⚖️ Ambas Válidas -> Gana " + (result == -1 ? "S1" : "S2") + " por Objetivos");
-                 debugCounter++; 
             }
             return result;
         }
@@ -105,29 +151,108 @@ public class FUHRunner {
     // =========================================================
     public static ExperimentResult runSingleNSGAII(
             FUHSchedulingProblem problem,
-            List<List<Slot>> slotsData,
             int populationSize, 
             double crossoverProb, 
             double mutationProb, 
             int maxEvaluations,
             long seed) throws Exception {
+            return runSingleNSGAII(problem, populationSize, crossoverProb, mutationProb, maxEvaluations, seed, 1);
+    }
+
+    /**
+     * Igual que la versión secuencial, pero evalúa cada población en numberOfThreads hilos.
+     * Los operadores siguen corriendo en el hilo principal: para una misma semilla el
+     * resultado es idéntico con cualquier cantidad de hilos.
+     */
+    public static ExperimentResult runSingleNSGAII(
+            FUHSchedulingProblem problem,
+            int populationSize, 
+            double crossoverProb, 
+            double mutationProb, 
+            int maxEvaluations,
+            long seed,
+            int numberOfThreads) throws Exception {
+            return runSingleNSGAII(problem, populationSize, crossoverProb, mutationProb, maxEvaluations, seed,
+                    numberOfThreads, new VariationOptions());
+    }
+
+    public static ExperimentResult runSingleNSGAII(
+            FUHSchedulingProblem problem,
+            int populationSize, 
+            double crossoverProb, 
+            double mutationProb, 
+            int maxEvaluations,
+            long seed,
+            int numberOfThreads,
+            VariationOptions options) throws Exception {
             
             org.uma.jmetal.util.pseudorandom.JMetalRandom.getInstance().setSeed(seed);
+            if (options.parallelInitialization) {
+                problem.prepareInitialPopulation(populationSize, seed, numberOfThreads);
+            }
             
-            var crossover = new FUHCrossover(crossoverProb, slotsData);
-            var mutation = new FUHMutation(mutationProb, slotsData);
+            var crossover = new FUHCrossover(crossoverProb, problem.getInstance());
+            FeasibilityRepair repair = options.feasibilityRepair ? new FeasibilityRepair(problem.getInstance()) : null;
+            MutationOperator<IntegerSolution> variation = buildMutation(problem, mutationProb, options, repair);
+            SolutionListEvaluator<IntegerSolution> evaluator = (numberOfThreads > 1)
+                    ? new ParallelSolutionListEvaluator<>(numberOfThreads)
+                    : new SequentialSolutionListEvaluator<>();
             
-            Algorithm<List<IntegerSolution>> algorithm = 
-                    new NSGAIIBuilder<>(problem, crossover, mutation, populationSize)
-                        .setMaxEvaluations(maxEvaluations)
-                        .setDominanceComparator(new ManualComparator())
-                        .build();
+            Algorithm<List<IntegerSolution>> algorithm = new RecyclingNSGAII(problem, maxEvaluations,
+                    populationSize, crossover, variation, new ManualComparator(), evaluator);
             
             long start = System.currentTimeMillis();
-            algorithm.run();
-            long end = System.currentTimeMillis();
+            try {
+                algorithm.run();
+            } finally {
+                evaluator.shutdown();
+            }
             
-            return new ExperimentResult(algorithm.result(), end - start);
+            return finishRun(problem, algorithm.result(), start, seed, numberOfThreads, options,
+                    (repair != null) ? repair.getRepairs() : 0);
+    }
+
+    /**
+     * Modelo de islas: varias poblaciones NSGA-II en paralelo que migran sus mejores individuos
+     * (ver IslandModel). El presupuesto de evaluaciones se reparte entre las islas.
+     */
+    public static ExperimentResult runIslandNSGAII(
+            FUHSchedulingProblem problem,
+            int populationSize, 
+            double crossoverProb, 
+            double mutationProb, 
+            int maxEvaluations,
+            long seed,
+            IslandOptions islands,
+            VariationOptions options) throws Exception {
+            return new IslandModel(problem, islands, options)
+                    .run(populationSize, crossoverProb, mutationProb, maxEvaluations, seed);
+    }
+
+    /** Mutación de la corrida: FUHMutation y, según las opciones, intercambios y reparación (en ese orden). */
+    static MutationOperator<IntegerSolution> buildMutation(FUHSchedulingProblem problem, double mutationProb,
+            VariationOptions options, FeasibilityRepair repair) {
+            var mutation = new FUHMutation(mutationProb, problem.getInstance());
+            mutation.setGeometricSkip(options.geometricMutation);
+            mutation.setOccupancyAware(options.occupancyAwareMutation);
+            List<MutationOperator<IntegerSolution>> mutations = new ArrayList<>();
+            mutations.add(mutation);
+            if (options.swapProbability > 0) mutations.add(new FUHSwapMutation(options.swapProbability, problem.getInstance()));
+            if (repair != null) mutations.add(repair);
+            return (mutations.size() == 1) ? mutation : new MutationChain(mutations);
+    }
+
+    // Fase memética opcional sobre el frente: el tiempo de pulido cuenta en el tiempo de ejecución
+    static ExperimentResult finishRun(FUHSchedulingProblem problem, List<IntegerSolution> front, long start,
+            long seed, int numberOfThreads, VariationOptions options, long repairs) {
+            long improvements = 0;
+            if (options.localSearchMillis > 0) {
+                FrontLocalSearch localSearch = new FrontLocalSearch(problem, new ManualComparator(false));
+                front = localSearch.polish(front, options.localSearchMillis, numberOfThreads, seed);
+                improvements = localSearch.getImprovements();
+            }
+            long end = System.currentTimeMillis();
+            return new ExperimentResult(front, end - start, repairs, improvements);
     }
     
     // =========================================================
@@ -140,6 +265,19 @@ public class FUHRunner {
         double mutationProb = 0.05;
         int maxEvaluations = 200000;
         long testSeed = 12345L; 
+        boolean incrementalEvaluation = true;   // Evaluación delta (mismos resultados que la completa)
+        boolean verifyEvaluation = false;       // Contrasta cada evaluación con el evaluador original (lento)
+        int numberOfThreads = Runtime.getRuntime().availableProcessors(); // Hilos de evaluación (1 = secuencial)
+        int evaluationCacheSize = 50000;        // Genotipos recordados (0 = sin caché)
+        VariationOptions variation = new VariationOptions();
+        variation.geometricMutation = false;    // Mutación por salto geométrico (misma distribución)
+        variation.occupancyAwareMutation = false; // Mutar hacia slots libres (menos choques)
+        variation.swapProbability = 0.0;        // Intercambios de slot entre partidos
+        variation.feasibilityRepair = false;    // Reparar choques y rachas antes de evaluar
+        variation.localSearchMillis = 0;        // Pulir el frente final con búsqueda local (ms, 0 = no)
+        variation.parallelInitialization = false; // Smart Random de la población inicial en paralelo
+        IslandOptions islands = new IslandOptions();
+        islands.islands = 1;                    // >1: modelo de islas (una población por hilo, con migración)
         
         try {
             // 🔥 AJUSTA ESTAS RUTAS 🔥
@@ -165,10 +303,12 @@ public class FUHRunner {
             System.out.println("   • Canchas: " + data.courtConfigs.size());
             System.out.println("   • Capacidad Real (Slots): " + totalPhysicalCapacity);
             // 🔥 FIN DE LA SECCIÓN DE DIAGNÓSTICO DE CAPACIDAD
-            // 2. Definir Problema
-            FUHSchedulingProblem problem = new FUHSchedulingProblem(
-                data.validSlots, data.matchInfos, data.courtConfigs, data.priorities, data.categoryBlocks
-            );
+            // 2. Definir Problema (compila la instancia; conserva el modelo para el modo verificación)
+            FUHSchedulingProblem problem = new FUHSchedulingProblem(data.validSlots, data.matchInfos,
+                    data.courtConfigs, data.priorities, data.categoryBlocks);
+            problem.setIncrementalEvaluation(incrementalEvaluation);
+            problem.setVerifyEvaluation(verifyEvaluation);
+            problem.setEvaluationCache(evaluationCacheSize);
             
             // 3. CARGA E INYECCIÓN DE SEMILLA (con chequeo de Null)
             IntegerSolution seed = FixtureSeeder.createSolutionFromExcel(
@@ -183,8 +323,18 @@ public class FUHRunner {
                 problem.setSeedSolution(seed);
                 System.out.println("✅ Semilla inyectada como primer individuo.");
             } else {
-                // Si falla la carga, el createSolution() del Problem usará el Smart Random.
-                System.err.println("❌ La semilla falló la carga. Se usará inicialización aleatoria inteligente.");
+                // Si falla la carga, la semilla sale del emparejamiento partidos-slots (Hopcroft-Karp)
+                System.err.println("❌ La semilla falló la carga. Se construye una por emparejamiento.");
+                MatchingConstructor.Result matching = MatchingConstructor.build(problem);
+                System.out.println("🧩 " + matching.summary());
+                if (matching.getMatchesWithoutOptions().length > 0) {
+                    System.err.println("❌ Hay partidos sin canchas válidas. Abortando.");
+                    return;
+                }
+                problem.setSeedSolution(matching.getSolution());
+                if (!matching.isOverlapFree()) {
+                    System.err.println("⚠️ La instancia no admite un fixture sin superposiciones.");
+                }
             }
 
             System.out.println("\n╔══════════════════════════════════════════════╗");
@@ -192,14 +342,25 @@ public class FUHRunner {
             System.out.println("╚══════════════════════════════════════════════╝");
             System.out.println("▶ Ejecutando algoritmo...");
             
-            ExperimentResult resultWrapper = runSingleNSGAII(
-                problem, data.validSlots, populationSize, crossoverProb, mutationProb, maxEvaluations, testSeed
-            );
+            ExperimentResult resultWrapper = (islands.islands > 1)
+                ? runIslandNSGAII(problem, populationSize, crossoverProb, mutationProb, maxEvaluations, testSeed, islands, variation)
+                : runSingleNSGAII(problem, populationSize, crossoverProb, mutationProb, maxEvaluations, testSeed, numberOfThreads, variation);
             
             List<IntegerSolution> result = resultWrapper.solutions; 
             result.sort(Comparator.comparingDouble(s -> s.objectives()[0]));
 
             displayResults(result, 0, resultWrapper.executionTimeMs);
+            if (variation.feasibilityRepair) {
+                System.out.println("🔧 Reparaciones aplicadas: " + resultWrapper.repairs);
+            }
+            if (variation.localSearchMillis > 0) {
+                System.out.println("🧗 Mejoras de la búsqueda local: " + resultWrapper.localSearchImprovements);
+            }
+            if (problem.getEvaluationCache() != null) {
+                EvaluationCache cache = problem.getEvaluationCache();
+                System.out.printf("🗃️  Caché de evaluaciones: %d aciertos / %d fallos (%.1f%%)%n",
+                        cache.getHits(), cache.getMisses(), cache.getHitRate() * 100);
+            }
             
             // Guardar resultados si hay algo válido
             if (!result.isEmpty()) {
@@ -219,7 +380,7 @@ public class FUHRunner {
     // 5. MÉTODOS DE VISUALIZACIÓN Y REPORTE (Se mantienen igual)
     // =========================================================
 
-    private static void displayResults(List<IntegerSolution> solutions, long startTime, long endTime) {
+    static void displayResults(List<IntegerSolution> solutions, long startTime, long endTime) {
         long executionTime = endTime - startTime;
         System.out.println("\n══════════════════════════════════════════════");
         System.out.println("RESULTADOS (" + solutions.size() + " soluciones)");
@@ -243,7 +404,7 @@ public class FUHRunner {
         System.out.println("─".repeat(65));
     }
 
-    private static void saveResultsToFiles(List<IntegerSolution> solutions, String baseName) {
+    static void saveResultsToFiles(List<IntegerSolution> solutions, String baseName) {
         if (solutions.isEmpty()) return;
         try {
             FileWriter csvWriter = new FileWriter(baseName + ".csv");
@@ -0,0 +1,87 @@
+package org.fuh.runner;
+
+import org.fuh.problem.FUHSchedulingProblem;
+import org.fuh.problem.FUHSolution;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binario de genomas para el clúster de islas. Por lista:
+ * cantidad de soluciones (int), ancho de gen en bytes (1, 2 o 4, según la mayor cantidad de
+ * opciones de la instancia) y por solución los genes en ese ancho, seguidos de objetivos y
+ * restricciones como double. Con objetivos y restricciones incluidos, el receptor no
+ * vuelve a evaluar a los inmigrantes. Ambos extremos deben usar la misma instancia.
+ */
+class GenomeCodec {
+
+    private final FUHSchedulingProblem problem;
+    private final int numberOfMatches;
+    private final int geneWidth;
+
+    GenomeCodec(FUHSchedulingProblem problem) {
+        this.problem = problem;
+        this.numberOfMatches = problem.getInstance().getNumberOfMatches();
+        int maxOptions = 0;
+        for (int[] options : problem.getInstance().getValidSlots()) maxOptions = Math.max(maxOptions, options.length);
+        this.geneWidth = (maxOptions <= 0x100) ? 1 : (maxOptions <= 0x10000) ? 2 : 4;
+    }
+
+    byte[] encode(List<IntegerSolution> solutions) {
+        int objectives = problem.numberOfObjectives();
+        int constraints = problem.numberOfConstraints();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                8 + solutions.size() * (numberOfMatches * geneWidth + 8 * (objectives + constraints)));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(solutions.size());
+            out.writeByte(geneWidth);
+            for (IntegerSolution solution : solutions) {
+                int[] genes = FUHSolution.genesOf(solution);
+                for (int gene : genes) writeGene(out, gene);
+                for (int k = 0; k < objectives; k++) out.writeDouble(solution.objectives()[k]);
+                for (int k = 0; k < constraints; k++) out.writeDouble(solution.constraints()[k]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    List<IntegerSolution> decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        int width = in.readUnsignedByte();
+        if (width != geneWidth) throw new IOException("Ancho de gen " + width + " distinto del local (" + geneWidth + ")");
+
+        List<IntegerSolution> solutions = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            FUHSolution solution = new FUHSolution(problem.variableBounds(),
+                    problem.numberOfObjectives(), problem.numberOfConstraints());
+            int[] genes = solution.getGenes();
+            for (int i = 0; i < numberOfMatches; i++) genes[i] = readGene(in);
+            for (int k = 0; k < solution.objectives().length; k++) solution.objectives()[k] = in.readDouble();
+            for (int k = 0; k < solution.constraints().length; k++) solution.constraints()[k] = in.readDouble();
+            solutions.add(solution);
+        }
+        return solutions;
+    }
+
+    private void writeGene(DataOutputStream out, int gene) throws IOException {
+        if (geneWidth == 1) out.writeByte(gene);
+        else if (geneWidth == 2) out.writeShort(gene);
+        else out.writeInt(gene);
+    }
+
+    private int readGene(DataInputStream in) throws IOException {
+        if (geneWidth == 1) return in.readUnsignedByte();
+        if (geneWidth == 2) return in.readUnsignedShort();
+        return in.readInt();
+    }
+}
@@ -0,0 +1,216 @@
+package org.fuh.runner;
+
+import org.fuh.problem.FUHSchedulingProblem;
+import org.fuh.problem.FrontLocalSearch;
+import org.fuh.runner.ClusterProtocol.Frame;
+import org.fuh.runner.ClusterProtocol.IslandConfig;
+import org.fuh.runner.FUHRunner.ExperimentResult;
+import org.fuh.runner.FUHRunner.IslandOptions;
+import org.fuh.runner.FUHRunner.VariationOptions;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordinador del clúster de islas: cada isla es un proceso IslandWorker (en esta u otra
+ * máquina) conectado por TCP. El coordinador asigna a cada trabajador su índice y su semilla,
+ * reenvía los migrantes en anillo (isla k -> k+1) sin decodificarlos y, al final, une las
+ * poblaciones en un frente no dominado. Con --spawn lanza él mismo los trabajadores locales.
+ * Uso: IslandCluster <excel> <trabajadores> [puerto] [--spawn]
+ */
+public class IslandCluster {
+
+    private static final int ACCEPT_TIMEOUT_MS = 120_000;
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: IslandCluster <excel> <trabajadores> [puerto] [--spawn]");
+            System.exit(1);
+        }
+        // --- CONFIGURACIÓN (misma que FUHRunner) ---
+        int populationSize = 100;
+        double crossoverProb = 0.95;
+        double mutationProb = 0.05;
+        int maxEvaluations = 200000;            // total, repartido entre las islas
+        long seed = 12345L;
+        IslandOptions islands = new IslandOptions();
+        islands.islands = Integer.parseInt(args[1]);
+        VariationOptions variation = new VariationOptions();
+        variation.geometricMutation = false;
+        variation.occupancyAwareMutation = false;
+        variation.swapProbability = 0.0;
+        int port = (args.length > 2 && !args[2].startsWith("--")) ? Integer.parseInt(args[2]) : 0;
+        boolean spawn = args[args.length - 1].equals("--spawn");
+
+        try {
+            FUHSchedulingProblem problem = new FUHSchedulingProblem(FUHRunner.loadDataFromExcel(args[0]).compile());
+            ExperimentResult result = run(args[0], problem, populationSize, crossoverProb, mutationProb,
+                    maxEvaluations, seed, islands, variation, port, spawn);
+
+            List<IntegerSolution> front = result.solutions;
+            front.sort(Comparator.comparingDouble(s -> s.objectives()[0]));
+            FUHRunner.displayResults(front, 0, result.executionTimeMs);
+            if (!front.isEmpty()) FUHRunner.saveResultsToFiles(front, "fuh_cluster_results");
+        } catch (Exception e) {
+            System.err.println("❌ Error en el coordinador: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Corre el clúster completo. Con spawnLocal se lanzan los trabajadores como procesos
+     * locales (misma JVM y classpath); si no, se espera que se conecten al puerto indicado.
+     */
+    public static ExperimentResult run(String excelPath, FUHSchedulingProblem problem,
+                                       int populationSize, double crossoverProb, double mutationProb,
+                                       int maxEvaluations, long seed, IslandOptions islands,
+                                       VariationOptions options, int port, boolean spawnLocal) throws Exception {
+        int count = Math.max(1, islands.islands);
+        GenomeCodec codec = new GenomeCodec(problem);
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Process> workers = new ArrayList<>();
+        Connection[] connections = new Connection[count];
+        List<IntegerSolution> merged = new ArrayList<>();
+        AtomicLong repairs = new AtomicLong();
+        long start = System.currentTimeMillis();
+
+        try (ServerSocket server = new ServerSocket()) {
+            server.bind(new InetSocketAddress(port));
+            server.setSoTimeout(ACCEPT_TIMEOUT_MS);
+            System.out.printf("🛰️ Coordinador en el puerto %d, esperando %d islas...%n", server.getLocalPort(), count);
+            if (spawnLocal) {
+                for (int k = 0; k < count; k++) workers.add(spawnWorker(excelPath, server.getLocalPort()));
+            }
+
+            // 1. Registro: cada trabajador valida la instancia y recibe su configuración
+            for (int k = 0; k < count; k++) {
+                Connection connection = new Connection(server.accept());
+                Frame hello = ClusterProtocol.read(connection.in);
+                DataInputStream fingerprint = new DataInputStream(new ByteArrayInputStream(hello.payload));
+                int matches = fingerprint.readInt();
+                int cells = fingerprint.readInt();
+                if (hello.type != ClusterProtocol.HELLO
+                        || matches != problem.getInstance().getNumberOfMatches()
+                        || cells != problem.getInstance().getNumberOfCells()) {
+                    connection.close();
+                    throw new IOException("El trabajador " + (k + 1) + " cargó otra instancia");
+                }
+                IslandConfig config = new IslandConfig();
+                config.index = k;
+                config.islands = count;
+                config.seed = root.split().nextLong();
+                config.populationSize = populationSize;
+                config.maxEvaluations = Math.max(populationSize, maxEvaluations / count);
+                config.crossoverProb = crossoverProb;
+                config.mutationProb = mutationProb;
+                config.migrationInterval = islands.migrationInterval;
+                config.migrants = islands.migrants;
+                config.variation = options;
+                config.evaluationCacheSize = (problem.getEvaluationCache() != null)
+                        ? problem.getEvaluationCache().getCapacity() : 0;
+                connection.send(ClusterProtocol.CONFIG, config.encode());
+                connections[k] = connection;
+            }
+
+            // 2. Reenvío de migrantes en anillo hasta recibir la población final de cada isla
+            List<Thread> relays = new ArrayList<>();
+            for (int k = 0; k < count; k++) {
+                Connection from = connections[k];
+                Connection to = connections[(k + 1) % count];
+                int island = k + 1;
+                Thread relay = new Thread(() -> {
+                    try {
+                        while (true) {
+                            Frame frame = ClusterProtocol.read(from.in);
+                            if (frame.type == ClusterProtocol.MIGRANTS) {
+                                to.sendQuietly(frame.type, frame.payload);
+                            } else if (frame.type == ClusterProtocol.FRONT) {
+                                repairs.addAndGet(ClusterProtocol.frontRepairs(frame.payload));
+                                List<IntegerSolution> population = codec.decode(ClusterProtocol.frontPopulation(frame.payload));
+                                synchronized (merged) {
+                                    merged.addAll(population);
+                                }
+                                return;
+                            }
+                        }
+                    } catch (IOException e) {
+                        System.err.println("⚠️ La isla " + island + " se desconectó sin enviar su población: " + e.getMessage());
+                    }
+                }, "fuh-cluster-relay");
+                relay.setDaemon(true);
+                relay.start();
+                relays.add(relay);
+            }
+            for (Thread relay : relays) relay.join();
+        } finally {
+            for (Connection connection : connections) if (connection != null) connection.close();
+            for (Process worker : workers) {
+                if (!worker.waitFor(10, TimeUnit.SECONDS)) worker.destroy();
+            }
+        }
+
+        System.out.printf("🧬 Poblaciones recibidas: %d individuos%n", merged.size());
+        List<IntegerSolution> front = FrontLocalSearch.nonDominated(merged, new FUHRunner.ManualComparator());
+        return FUHRunner.finishRun(problem, front, start, seed,
+                Runtime.getRuntime().availableProcessors(), options, repairs.get());
+    }
+
+    private static Process spawnWorker(String excelPath, int port) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                IslandWorker.class.getName(), excelPath, "127.0.0.1", String.valueOf(port))
+                .inheritIO()
+                .start();
+    }
+
+    // Conexión con un trabajador; las escrituras se sincronizan (varios hilos reenvían hacia ella)
+    private static class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized void send(byte type, byte[] payload) throws IOException {
+            ClusterProtocol.write(out, type, payload);
+        }
+
+        // Si la isla destino ya terminó, los migrantes se descartan
+        void sendQuietly(byte type, byte[] payload) {
+            try {
+                send(type, payload);
+            } catch (IOException e) {
+                // destino cerrado
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ya cerrada
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.fuh.runner;
+
+import org.fuh.operator.FUHCrossover;
+import org.fuh.operator.FeasibilityRepair;
+import org.fuh.problem.FUHSchedulingProblem;
+import org.fuh.problem.FrontLocalSearch;
+import org.fuh.problem.FUHSolution;
+import org.fuh.runner.FUHRunner.ExperimentResult;
+import org.fuh.runner.FUHRunner.IslandOptions;
+import org.fuh.runner.FUHRunner.ManualComparator;
+import org.fuh.runner.FUHRunner.VariationOptions;
+import org.uma.jmetal.operator.crossover.CrossoverOperator;
+import org.uma.jmetal.operator.mutation.MutationOperator;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
+import org.uma.jmetal.util.pseudorandom.impl.JavaRandomGenerator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NSGA-II en islas: una población por hilo, cada una con su propio flujo de JMetalRandom
+ * (derivado de la semilla) y sus propios operadores. Cada migrationInterval generaciones
+ * una isla copia sus primeros no dominados a la cola de la siguiente (anillo, colas sin
+ * bloqueo) y reemplaza a sus peores individuos con los que le llegaron.
+ * Las islas se reparten el presupuesto de evaluaciones. Al final se unen sus poblaciones
+ * y se devuelve el frente no dominado según el ManualComparator.
+ * Cada isla tiene su propio FUHSchedulingProblem sobre la instancia compilada compartida: la
+ * isla 0 corre sobre el problema recibido (y es la única que recibe su semilla), el resto
+ * sobre réplicas. Con parallelInitialization cada isla prepara su población inicial con su
+ * propia semilla.
+ * Con migración, el momento en que llega cada inmigrante depende de los hilos: dos corridas
+ * con la misma semilla pueden diferir (sin migración son reproducibles).
+ */
+class IslandModel {
+
+    private final FUHSchedulingProblem problem;
+    private final IslandOptions islands;
+    private final VariationOptions options;
+
+    IslandModel(FUHSchedulingProblem problem, IslandOptions islands, VariationOptions options) {
+        this.problem = problem;
+        this.islands = islands;
+        this.options = options;
+    }
+
+    ExperimentResult run(int populationSize, double crossoverProb, double mutationProb,
+                         int maxEvaluations, long seed) throws Exception {
+        int count = Math.max(1, islands.islands);
+        int evaluationsPerIsland = Math.max(populationSize, maxEvaluations / count);
+
+        ThreadLocalRandomGenerator dispatcher = ThreadLocalRandomGenerator.install();
+        SplittableRandom root = new SplittableRandom(seed);
+        long[] islandSeeds = new long[count];
+        for (int k = 0; k < count; k++) islandSeeds[k] = root.split().nextLong();
+
+        List<ConcurrentLinkedQueue<IntegerSolution>> inboxes = new ArrayList<>();
+        for (int k = 0; k < count; k++) inboxes.add(new ConcurrentLinkedQueue<>());
+
+        List<FeasibilityRepair> repairs = new ArrayList<>();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "fuh-island-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.currentTimeMillis();
+        List<IntegerSolution> merged = new ArrayList<>();
+        try {
+            List<Future<List<IntegerSolution>>> tasks = new ArrayList<>();
+            for (int k = 0; k < count; k++) {
+                // Problema y operadores propios: estado incremental, caché y buffers no se comparten
+                FUHSchedulingProblem islandProblem = (k == 0) ? problem : problem.replicate();
+                FeasibilityRepair repair = options.feasibilityRepair ? new FeasibilityRepair(problem.getInstance()) : null;
+                if (repair != null) repairs.add(repair);
+                IslandNSGAII island = new IslandNSGAII(islandProblem, evaluationsPerIsland, populationSize,
+                        new FUHCrossover(crossoverProb, problem.getInstance()),
+                        FUHRunner.buildMutation(islandProblem, mutationProb, options, repair),
+                        new ManualComparator(),
+                        new QueueChannel(inboxes.get(k), inboxes.get((k + 1) % count)),
+                        islands.migrationInterval, islands.migrants);
+                long islandSeed = islandSeeds[k];
+                tasks.add(executor.submit(() -> {
+                    dispatcher.setForCurrentThread(new JavaRandomGenerator(islandSeed));
+                    try {
+                        // Las islas ya corren en paralelo: cada una prepara su población en su hilo
+                        if (options.parallelInitialization) {
+                            islandProblem.prepareInitialPopulation(populationSize, islandSeed, 1);
+                        }
+                        island.run();
+                        return island.result();
+                    } finally {
+                        dispatcher.clearForCurrentThread();
+                    }
+                }));
+            }
+            for (Future<List<IntegerSolution>> task : tasks) merged.addAll(task.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long repaired = 0;
+        for (FeasibilityRepair repair : repairs) repaired += repair.getRepairs();
+        List<IntegerSolution> front = FrontLocalSearch.nonDominated(merged, new ManualComparator());
+        return FUHRunner.finishRun(problem, front, start, seed, count, options, repaired);
+    }
+
+    // =========================================================
+    // ISLA
+    // =========================================================
+
+    /** Vía de migración de una isla: hacia la siguiente isla y desde la anterior. */
+    interface Channel {
+        void emigrate(IntegerSolution migrant);
+
+        /** Próximo inmigrante recibido, o null si no llegó ninguno. */
+        IntegerSolution immigrant();
+
+        /** Descarta los inmigrantes que no entraron en esta migración. */
+        void discard();
+    }
+
+    // Islas en el mismo proceso: colas sin bloqueo en anillo
+    private static class QueueChannel implements Channel {
+        private final ConcurrentLinkedQueue<IntegerSolution> inbox;
+        private final ConcurrentLinkedQueue<IntegerSolution> outbox;
+
+        QueueChannel(ConcurrentLinkedQueue<IntegerSolution> inbox, ConcurrentLinkedQueue<IntegerSolution> outbox) {
+            this.inbox = inbox;
+            this.outbox = outbox;
+        }
+
+        @Override public void emigrate(IntegerSolution migrant) { outbox.offer(migrant); }
+        @Override public IntegerSolution immigrant() { return inbox.poll(); }
+        @Override public void discard() { inbox.clear(); }
+    }
+
+    /** NSGA-II que migra al cerrar cada migrationInterval generaciones. */
+    static class IslandNSGAII extends RecyclingNSGAII {
+
+        private final Channel channel;
+        private final int migrationInterval;
+        private final int migrants;
+        private int generation = 0;
+
+        IslandNSGAII(FUHSchedulingProblem problem, int maxEvaluations, int populationSize,
+                     CrossoverOperator<IntegerSolution> crossover, MutationOperator<IntegerSolution> mutation,
+                     Comparator<IntegerSolution> dominanceComparator,
+                     Channel channel, int migrationInterval, int migrants) {
+            super(problem, maxEvaluations, populationSize, crossover, mutation, dominanceComparator,
+                    new SequentialSolutionListEvaluator<>());
+            this.channel = channel;
+            this.migrationInterval = migrationInterval;
+            this.migrants = migrants;
+        }
+
+        @Override
+        protected void updateProgress() {
+            super.updateProgress();
+            generation++;
+            if (migrationInterval > 0 && migrants > 0 && generation % migrationInterval == 0) migrate();
+        }
+
+        private void migrate() {
+            List<IntegerSolution> population = new ArrayList<>(getPopulation());
+
+            // Emigran copias de los primeros no dominados (sin atributos: el estado incremental
+            // y el ranking pertenecen a esta isla)
+            int sent = 0;
+            for (int i = 0; i < population.size() && sent < migrants; i++) {
+                IntegerSolution candidate = population.get(i);
+                if (isNonDominated(candidate, population)) {
+                    IntegerSolution migrant = (IntegerSolution) candidate.copy();
+                    migrant.attributes().clear();
+                    channel.emigrate(migrant);
+                    sent++;
+                }
+            }
+
+            // Los inmigrantes (ya evaluados) reemplazan a los últimos de la población, que está
+            // ordenada por frente. Si llegaron más de los previstos, el resto se descarta.
+            int slot = population.size() - 1;
+            for (int received = 0; received < migrants && slot >= 0; received++) {
+                IntegerSolution immigrant = channel.immigrant();
+                if (immigrant == null) break;
+                population.set(slot--, immigrant);
+            }
+            channel.discard();
+            setPopulation(population);
+        }
+
+        private boolean isNonDominated(IntegerSolution solution, List<IntegerSolution> population) {
+            for (IntegerSolution other : population) {
+                if (other != solution && dominanceComparator.compare(other, solution) < 0) return false;
+            }
+            return true;
+        }
+    }
+}
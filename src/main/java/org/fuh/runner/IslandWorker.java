@@ -0,0 +1,134 @@
+package org.fuh.runner;
+
+import org.fuh.model.CompiledInstance;
+import org.fuh.operator.FUHCrossover;
+import org.fuh.operator.FeasibilityRepair;
+import org.fuh.problem.FUHSchedulingProblem;
+import org.fuh.runner.ClusterProtocol.Frame;
+import org.fuh.runner.ClusterProtocol.IslandConfig;
+import org.fuh.runner.IslandModel.IslandNSGAII;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Proceso trabajador del clúster de islas: carga la instancia, se conecta al coordinador,
+ * recibe los parámetros de su isla y corre un NSGA-II que migra a través del socket.
+ * Al terminar envía su población final y se desconecta.
+ * Uso: IslandWorker <excel> <host> <puerto>
+ */
+public class IslandWorker {
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Uso: IslandWorker <excel> <host> <puerto>");
+            System.exit(1);
+        }
+        try {
+            CompiledInstance instance = FUHRunner.loadDataFromExcel(args[0]).compile();
+            run(instance, args[1], Integer.parseInt(args[2]));
+        } catch (Exception e) {
+            System.err.println("❌ Error en el trabajador: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /** Corre una isla contra el coordinador en host:puerto hasta agotar su presupuesto. */
+    public static void run(CompiledInstance instance, String host, int port) throws IOException {
+        FUHSchedulingProblem problem = new FUHSchedulingProblem(instance);
+        problem.setIncrementalEvaluation(true);
+        GenomeCodec codec = new GenomeCodec(problem);
+
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            ClusterProtocol.write(out, ClusterProtocol.HELLO,
+                    ClusterProtocol.hello(instance.getNumberOfMatches(), instance.getNumberOfCells()));
+            Frame frame = ClusterProtocol.read(in);
+            if (frame.type != ClusterProtocol.CONFIG) throw new IOException("Se esperaba la configuración de la isla");
+            IslandConfig config = IslandConfig.decode(frame.payload);
+            problem.setEvaluationCache(config.evaluationCacheSize);
+
+            RemoteChannel channel = new RemoteChannel(codec, in, out);
+            channel.start();
+
+            // Proceso propio: el JMetalRandom global es el flujo de esta isla
+            JMetalRandom.getInstance().setSeed(config.seed);
+            FeasibilityRepair repair = config.variation.feasibilityRepair ? new FeasibilityRepair(instance) : null;
+            IslandNSGAII island = new IslandNSGAII(problem, config.maxEvaluations, config.populationSize,
+                    new FUHCrossover(config.crossoverProb, instance),
+                    FUHRunner.buildMutation(problem, config.mutationProb, config.variation, repair),
+                    new FUHRunner.ManualComparator(),
+                    channel, config.migrationInterval, config.migrants);
+
+            System.out.printf("🏝️ Isla %d/%d: %d evaluaciones%n", config.index + 1, config.islands, config.maxEvaluations);
+            long start = System.currentTimeMillis();
+            // Un proceso por isla: la población inicial se prepara en un solo hilo, como en IslandModel
+            if (config.variation.parallelInitialization) {
+                problem.prepareInitialPopulation(config.populationSize, config.seed, 1);
+            }
+            island.run();
+
+            byte[] front = ClusterProtocol.front((repair != null) ? repair.getRepairs() : 0, codec.encode(island.result()));
+            synchronized (out) {
+                ClusterProtocol.write(out, ClusterProtocol.FRONT, front);
+            }
+            System.out.printf("✅ Isla %d terminada en %d ms%n", config.index + 1, System.currentTimeMillis() - start);
+        }
+    }
+
+    // Migración por el socket: los emigrantes salen de a uno, los inmigrantes los encola un hilo lector
+    private static class RemoteChannel implements IslandModel.Channel {
+        private final GenomeCodec codec;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final ConcurrentLinkedQueue<IntegerSolution> inbox = new ConcurrentLinkedQueue<>();
+
+        RemoteChannel(GenomeCodec codec, DataInputStream in, DataOutputStream out) {
+            this.codec = codec;
+            this.in = in;
+            this.out = out;
+        }
+
+        void start() {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (true) {
+                        Frame frame = ClusterProtocol.read(in);
+                        if (frame.type == ClusterProtocol.MIGRANTS) inbox.addAll(codec.decode(frame.payload));
+                    }
+                } catch (IOException e) {
+                    // Conexión cerrada: no llegan más inmigrantes
+                }
+            }, "fuh-island-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        @Override
+        public void emigrate(IntegerSolution migrant) {
+            byte[] payload = codec.encode(Collections.singletonList(migrant));
+            try {
+                synchronized (out) {
+                    ClusterProtocol.write(out, ClusterProtocol.MIGRANTS, payload);
+                }
+            } catch (IOException e) {
+                // Sin coordinador la isla sigue sola
+            }
+        }
+
+        @Override public IntegerSolution immigrant() { return inbox.poll(); }
+        @Override public void discard() { inbox.clear(); }
+    }
+}
@@ -0,0 +1,78 @@
+package org.fuh.runner;
+
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluador de poblaciones sobre un pool fijo de hilos.
+ * Los hilos toman soluciones de a una (índice compartido), así que el reparto se
+ * balancea solo. La evaluación no consume números aleatorios, por lo que el resultado
+ * es el mismo que el secuencial para una semilla dada, sin importar el orden de los hilos.
+ */
+public class ParallelSolutionListEvaluator<S> implements SolutionListEvaluator<S> {
+
+    private final int numberOfThreads;
+    private final transient ExecutorService executor;
+
+    public ParallelSolutionListEvaluator(int numberOfThreads) {
+        if (numberOfThreads < 1) throw new IllegalArgumentException("numberOfThreads debe ser >= 1: " + numberOfThreads);
+        this.numberOfThreads = numberOfThreads;
+        this.executor = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+            Thread thread = new Thread(runnable, "fuh-eval");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    @Override
+    public List<S> evaluate(List<S> solutionList, Problem<S> problem) {
+        // Una misma instancia repetida en la lista se evalúa una sola vez (nunca en dos hilos a la vez)
+        Set<S> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<S> pending = new ArrayList<>(solutionList.size());
+        for (S solution : solutionList) {
+            if (seen.add(solution)) pending.add(solution);
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>(numberOfThreads);
+        for (int t = 0; t < Math.min(numberOfThreads, pending.size()); t++) {
+            workers.add(executor.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < pending.size()) problem.evaluate(pending.get(i));
+            }));
+        }
+
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Evaluación interrumpida", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IllegalStateException("Error evaluando la población", e.getCause());
+            }
+        }
+        return solutionList;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,251 @@
+package org.fuh.runner;
+
+import org.apache.commons.math3.distribution.ChiSquaredDistribution;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.fuh.runner.FUHRunner.ExperimentResult;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Calibración por racing (estilo F-race): las configuraciones vivas se corren bloque a bloque
+ * (cada bloque es un par instancia/semilla) y, a partir de firstTest bloques, un test de
+ * Friedman sobre la calidad final decide si hay diferencias. Si las hay, el post-hoc de
+ * Conover elimina las configuraciones significativamente peores que la mejor.
+ * Calidad de una corrida: hipervolumen 2D de sus soluciones factibles (referencia común al
+ * bloque); sin soluciones factibles, menos la menor violación total (siempre peor que factible).
+ */
+public class RacingCalibration {
+
+    /** Corre la configuración candidate en el bloque block (instancia y semilla los decide quien llama). */
+    public interface RunFunction {
+        ExperimentResult run(int candidate, int block) throws Exception;
+    }
+
+    /** Avance de la carrera: se avisa al cerrar cada bloque (block empieza en 0). */
+    public interface BlockListener {
+        void blockFinished(int block, int alive, int eliminated);
+    }
+
+    private final long[] evaluationsPerRun;   // costo de una corrida de cada configuración
+    private final int maxBlocks;
+    private final RunFunction runs;
+    private final int workers;
+    private BlockListener listener;
+    private int firstTest = 5;
+    private double alpha = 0.05;
+
+    public RacingCalibration(long[] evaluationsPerRun, int maxBlocks, RunFunction runs, int workers) {
+        this.evaluationsPerRun = evaluationsPerRun;
+        this.maxBlocks = maxBlocks;
+        this.runs = runs;
+        this.workers = Math.max(1, workers);
+    }
+
+    /** Bloques que se corren antes del primer test (todas las configuraciones los completan). */
+    public void setFirstTest(int blocks) {
+        this.firstTest = Math.max(2, blocks);
+    }
+
+    public void setAlpha(double alpha) {
+        this.alpha = alpha;
+    }
+
+    public void setBlockListener(BlockListener listener) {
+        this.listener = listener;
+    }
+
+    /** Resultado de la carrera: sobrevivientes (de mejor a peor) y evaluaciones gastadas. */
+    public static class Result {
+        public final int[] survivors;
+        public final double[] meanRanks;          // por sobreviviente, en el mismo orden
+        public final int blocks;
+        public final long evaluationsUsed;
+        public final long evaluationsFullGrid;    // todas las configuraciones en los bloques corridos
+
+        Result(int[] survivors, double[] meanRanks, int blocks, long evaluationsUsed, long evaluationsFullGrid) {
+            this.survivors = survivors;
+            this.meanRanks = meanRanks;
+            this.blocks = blocks;
+            this.evaluationsUsed = evaluationsUsed;
+            this.evaluationsFullGrid = evaluationsFullGrid;
+        }
+
+        public double getSavedFraction() {
+            return (evaluationsFullGrid == 0) ? 0.0 : 1.0 - (double) evaluationsUsed / evaluationsFullGrid;
+        }
+    }
+
+    public Result race() throws Exception {
+        List<Integer> alive = new ArrayList<>();
+        for (int c = 0; c < evaluationsPerRun.length; c++) alive.add(c);
+        List<double[]> quality = new ArrayList<>();   // por bloque, indexado por configuración
+        long used = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        int block = 0;
+        try {
+            for (; block < maxBlocks && alive.size() > 1; block++) {
+                quality.add(runBlock(executor, alive, block));
+                for (int c : alive) used += evaluationsPerRun[c];
+
+                int before = alive.size();
+                if (block + 1 >= firstTest) alive = eliminate(alive, quality);
+                if (listener != null) listener.blockFinished(block, alive.size(), before - alive.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Sobrevivientes ordenados por rango medio (1 = mejor)
+        double[] rankSums = rankSums(alive, quality);
+        Integer[] order = new Integer[alive.size()];
+        for (int j = 0; j < order.length; j++) order[j] = j;
+        Arrays.sort(order, Comparator.comparingDouble(j -> rankSums[j]));
+        int[] survivors = new int[order.length];
+        double[] meanRanks = new double[order.length];
+        for (int k = 0; k < order.length; k++) {
+            survivors[k] = alive.get(order[k]);
+            meanRanks[k] = quality.isEmpty() ? 1.0 : rankSums[order[k]] / quality.size();
+        }
+        // Grilla completa sobre los mismos bloques: todas las configuraciones en cada uno
+        long full = 0;
+        for (long evaluations : evaluationsPerRun) full += evaluations * block;
+        return new Result(survivors, meanRanks, block, used, full);
+    }
+
+    // =========================================================
+    // BLOQUE: CORRIDAS Y CALIDAD
+    // =========================================================
+
+    private double[] runBlock(ExecutorService executor, List<Integer> alive, int block) throws Exception {
+        List<Future<ExperimentResult>> tasks = new ArrayList<>();
+        for (int c : alive) tasks.add(executor.submit(() -> runs.run(c, block)));
+
+        List<List<IntegerSolution>> fronts = new ArrayList<>();
+        for (Future<ExperimentResult> task : tasks) {
+            try {
+                fronts.add(task.get().solutions);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+                throw e;
+            }
+        }
+
+        // Referencia común del bloque: el peor valor factible de cada objetivo, más uno
+        double[] reference = {0.0, 0.0};
+        for (List<IntegerSolution> front : fronts) {
+            for (IntegerSolution s : front) {
+                if (!isFeasible(s)) continue;
+                reference[0] = Math.max(reference[0], s.objectives()[0] + 1);
+                reference[1] = Math.max(reference[1], s.objectives()[1] + 1);
+            }
+        }
+
+        double[] row = new double[evaluationsPerRun.length];
+        Arrays.fill(row, Double.NaN);
+        for (int j = 0; j < alive.size(); j++) row[alive.get(j)] = quality(fronts.get(j), reference);
+        return row;
+    }
+
+    private static double quality(List<IntegerSolution> front, double[] reference) {
+        List<double[]> points = new ArrayList<>();
+        double leastViolation = Double.MAX_VALUE;
+        for (IntegerSolution s : front) {
+            if (isFeasible(s)) points.add(s.objectives());
+            else leastViolation = Math.min(leastViolation, violation(s));
+        }
+        if (!points.isEmpty()) return hypervolume(points, reference);
+        return (leastViolation == Double.MAX_VALUE) ? -Double.MAX_VALUE : -leastViolation;
+    }
+
+    /** Hipervolumen 2D (minimización) dominado por los puntos y acotado por la referencia. */
+    static double hypervolume(List<double[]> points, double[] reference) {
+        List<double[]> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingDouble((double[] p) -> p[0]).thenComparingDouble(p -> p[1]));
+        double volume = 0.0;
+        double bestSecond = reference[1];
+        for (double[] p : sorted) {
+            if (p[0] >= reference[0] || p[1] >= bestSecond) continue;
+            volume += (reference[0] - p[0]) * (bestSecond - p[1]);
+            bestSecond = p[1];
+        }
+        return volume;
+    }
+
+    private static boolean isFeasible(IntegerSolution s) {
+        return violation(s) == 0.0;
+    }
+
+    private static double violation(IntegerSolution s) {
+        double total = 0.0;
+        for (double c : s.constraints()) total -= c;
+        return total;
+    }
+
+    // =========================================================
+    // FRIEDMAN + CONOVER
+    // =========================================================
+
+    private List<Integer> eliminate(List<Integer> alive, List<double[]> quality) {
+        int k = alive.size();
+        int b = quality.size();
+        double[] rankSums = rankSums(alive, quality);
+        double sumSquares = 0.0;
+        for (double[] row : quality) for (double r : ranks(alive, row)) sumSquares += r * r;
+
+        double expected = b * (k + 1) / 2.0;
+        double numerator = 0.0;
+        for (double r : rankSums) numerator += (r - expected) * (r - expected);
+        double denominator = sumSquares - b * k * (k + 1) * (k + 1) / 4.0;
+        if (denominator <= 0) return alive;   // empates en todos los bloques
+
+        double statistic = (k - 1) * numerator / denominator;
+        double pValue = 1.0 - new ChiSquaredDistribution(k - 1).cumulativeProbability(statistic);
+        if (pValue >= alpha) return alive;
+
+        // Conover: diferencia de suma de rangos con la mejor mayor que la crítica -> eliminada
+        int degrees = (b - 1) * (k - 1);
+        double t = new TDistribution(degrees).inverseCumulativeProbability(1 - alpha / 2);
+        double critical = t * Math.sqrt(2 * b * (1 - statistic / (b * (k - 1))) * denominator / degrees);
+        double best = Arrays.stream(rankSums).min().orElse(0.0);
+
+        List<Integer> survivors = new ArrayList<>();
+        for (int j = 0; j < k; j++) if (rankSums[j] - best <= critical) survivors.add(alive.get(j));
+        return survivors;
+    }
+
+    private static double[] rankSums(List<Integer> alive, List<double[]> quality) {
+        double[] sums = new double[alive.size()];
+        for (double[] row : quality) {
+            double[] ranks = ranks(alive, row);
+            for (int j = 0; j < sums.length; j++) sums[j] += ranks[j];
+        }
+        return sums;
+    }
+
+    // Rangos dentro del bloque: 1 = mayor calidad, empates con rango promedio
+    private static double[] ranks(List<Integer> alive, double[] row) {
+        int k = alive.size();
+        Integer[] order = new Integer[k];
+        for (int j = 0; j < k; j++) order[j] = j;
+        Arrays.sort(order, (x, y) -> Double.compare(row[alive.get(y)], row[alive.get(x)]));
+
+        double[] ranks = new double[k];
+        for (int i = 0; i < k; ) {
+            int end = i;
+            while (end + 1 < k && row[alive.get(order[end + 1])] == row[alive.get(order[i])]) end++;
+            double rank = (i + end) / 2.0 + 1;
+            for (int m = i; m <= end; m++) ranks[order[m]] = rank;
+            i = end + 1;
+        }
+        return ranks;
+    }
+}
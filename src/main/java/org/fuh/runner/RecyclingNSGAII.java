@@ -0,0 +1,39 @@
+package org.fuh.runner;
+
+import org.fuh.problem.FUHSchedulingProblem;
+import org.uma.jmetal.algorithm.multiobjective.nsgaii.NSGAII;
+import org.uma.jmetal.operator.crossover.CrossoverOperator;
+import org.uma.jmetal.operator.mutation.MutationOperator;
+import org.uma.jmetal.operator.selection.impl.BinaryTournamentSelection;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.comparator.RankingAndCrowdingDistanceComparator;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import java.util.Comparator;
+
+/**
+ * NSGA-II con la misma configuración que arma NSGAIIBuilder (torneo binario por ranking y
+ * crowding, mating pool y descendencia del tamaño de la población). Al cerrar cada generación
+ * devuelve al problema los estados incrementales de las soluciones descartadas, que reutilizan
+ * los hijos de la generación siguiente.
+ */
+class RecyclingNSGAII extends NSGAII<IntegerSolution> {
+
+    private final FUHSchedulingProblem problem;
+
+    RecyclingNSGAII(FUHSchedulingProblem problem, int maxEvaluations, int populationSize,
+                    CrossoverOperator<IntegerSolution> crossover, MutationOperator<IntegerSolution> mutation,
+                    Comparator<IntegerSolution> dominanceComparator, SolutionListEvaluator<IntegerSolution> evaluator) {
+        super(problem, maxEvaluations, populationSize, populationSize, populationSize, crossover, mutation,
+                new BinaryTournamentSelection<>(new RankingAndCrowdingDistanceComparator<>()),
+                dominanceComparator, evaluator);
+        this.problem = problem;
+    }
+
+    @Override
+    protected void updateProgress() {
+        super.updateProgress();
+        // Punto seguro: la descendencia ya se evaluó y el reemplazo ya eligió a las sobrevivientes
+        problem.recycleEvaluationStates(getPopulation());
+    }
+}
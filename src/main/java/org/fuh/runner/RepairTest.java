@@ -0,0 +1,76 @@
+package org.fuh.runner;
+
+import org.fuh.io.ExcelLoader;
+import org.fuh.model.CompiledInstance;
+import org.fuh.operator.FeasibilityRepair;
+import org.fuh.problem.FUHSchedulingProblem;
+import org.uma.jmetal.solution.integersolution.IntegerSolution;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+/**
+ * Prueba de la reparación de factibilidad: sobre soluciones al azar (semilla fija) compara la
+ * violación total de restricciones, evaluada por el problema, antes y después de reparar.
+ * Termina con código 1 si alguna solución reparada quedó con más violación que la original.
+ */
+public class RepairTest {
+
+    private static final String EXCEL_FILE_PATH = "input_v5.xlsx";
+    private static final int SOLUTIONS = 1000;
+    private static final long SEED = 3;
+
+    public static void main(String[] args) {
+        String path = (args.length > 0) ? args[0] : EXCEL_FILE_PATH;
+        System.out.println("==========================================");
+        System.out.println("   PRUEBA DE REPARACIÓN DE FACTIBILIDAD");
+        System.out.println("==========================================\n");
+
+        try {
+            System.out.println("Leyendo archivo: " + path + " ...");
+            ExcelLoader.DataResult data = new ExcelLoader().loadFromExcel(path);
+            boolean ok = run(data.compile());
+            System.out.println(ok ? "\n✅ La reparación nunca empeora la violación." : "\n❌ La reparación empeoró alguna solución.");
+            System.exit(ok ? 0 : 1);
+        } catch (Exception e) {
+            System.err.println("❌ Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /** Repara soluciones al azar; devuelve false si alguna termina con más violación total. */
+    public static boolean run(CompiledInstance instance) {
+        FUHSchedulingProblem problem = new FUHSchedulingProblem(instance);
+        FeasibilityRepair repair = new FeasibilityRepair(instance);
+        JMetalRandom.getInstance().setSeed(SEED);
+        int[][] options = instance.getValidSlots();
+
+        double totalBefore = 0.0;
+        double totalAfter = 0.0;
+        int improved = 0;
+        int worse = 0;
+        for (int k = 0; k < SOLUTIONS; k++) {
+            IntegerSolution solution = problem.createSolution();
+            for (int m = 0; m < options.length; m++) {
+                solution.variables().set(m, JMetalRandom.getInstance().nextInt(0, options[m].length - 1));
+            }
+            double before = violation(problem.evaluate(solution));
+            double after = violation(problem.evaluate(repair.execute(solution)));
+            totalBefore += before;
+            totalAfter += after;
+            if (after < before) improved++;
+            if (after > before) worse++;
+        }
+
+        System.out.printf("   Violación media: %.2f -> %.2f%n", totalBefore / SOLUTIONS, totalAfter / SOLUTIONS);
+        System.out.printf("   Mejoradas: %d/%d  Empeoradas: %d  Movimientos: %d%n",
+                improved, SOLUTIONS, worse, repair.getRepairs());
+        return worse == 0;
+    }
+
+    // Misma suma que el ManualComparator: restricciones negativas, en orden
+    private static double violation(IntegerSolution solution) {
+        double total = 0.0;
+        for (double value : solution.constraints()) if (value < 0) total -= value;
+        return total;
+    }
+}
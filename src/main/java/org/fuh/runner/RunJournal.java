@@ -0,0 +1,58 @@
+package org.fuh.runner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Diario de corridas terminadas de una calibración: una línea por corrida, agregada con
+ * fsync después de que sus filas ya están en el CSV. Al reanudar, una línea incompleta
+ * (corte a mitad de escritura) se descarta y se trunca, así la corrida se vuelve a correr.
+ */
+class RunJournal {
+
+    private final Path path;
+
+    RunJournal(String fileName) {
+        this.path = Paths.get(fileName);
+    }
+
+    /** Entradas completas del diario (vacío si no existe). */
+    Set<String> load() throws IOException {
+        Set<String> entries = new LinkedHashSet<>();
+        if (!Files.exists(path)) return entries;
+
+        byte[] bytes = Files.readAllBytes(path);
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') complete--;
+        if (complete < bytes.length) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+                channel.force(true);
+            }
+        }
+
+        String content = new String(bytes, 0, complete, StandardCharsets.UTF_8);
+        for (String line : content.split("\n")) {
+            if (!line.isEmpty()) entries.add(line);
+        }
+        return entries;
+    }
+
+    /** Agrega la entrada y espera a que esté en disco. */
+    synchronized void record(String entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap((entry + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+    }
+}
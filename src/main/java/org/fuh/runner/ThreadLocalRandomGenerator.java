@@ -0,0 +1,74 @@
+package org.fuh.runner;
+
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+import org.uma.jmetal.util.pseudorandom.PseudoRandomGenerator;
+
+/**
+ * Generador de JMetalRandom que despacha por hilo: cada hilo puede tener su propio flujo
+ * (setForCurrentThread) y los que no lo tienen usan el generador original, compartido.
+ * Los operadores siguen llamando a JMetalRandom.getInstance() sin cambios, así que varias
+ * corridas en paralelo quedan independientes entre sí y reproducibles por semilla.
+ */
+public class ThreadLocalRandomGenerator implements PseudoRandomGenerator {
+
+    private final PseudoRandomGenerator shared;
+    private final transient ThreadLocal<PseudoRandomGenerator> local = new ThreadLocal<>();
+
+    private ThreadLocalRandomGenerator(PseudoRandomGenerator shared) {
+        this.shared = shared;
+    }
+
+    /** Instala el despachador en JMetalRandom (una sola vez) y lo devuelve. */
+    public static synchronized ThreadLocalRandomGenerator install() {
+        JMetalRandom random = JMetalRandom.getInstance();
+        if (random.getRandomGenerator() instanceof ThreadLocalRandomGenerator) {
+            return (ThreadLocalRandomGenerator) random.getRandomGenerator();
+        }
+        ThreadLocalRandomGenerator dispatcher = new ThreadLocalRandomGenerator(random.getRandomGenerator());
+        random.setRandomGenerator(dispatcher);
+        return dispatcher;
+    }
+
+    public void setForCurrentThread(PseudoRandomGenerator generator) {
+        local.set(generator);
+    }
+
+    public void clearForCurrentThread() {
+        local.remove();
+    }
+
+    private PseudoRandomGenerator current() {
+        PseudoRandomGenerator generator = local.get();
+        return (generator != null) ? generator : shared;
+    }
+
+    @Override
+    public int nextInt(int lowerBound, int upperBound) {
+        return current().nextInt(lowerBound, upperBound);
+    }
+
+    @Override
+    public double nextDouble(double lowerBound, double upperBound) {
+        return current().nextDouble(lowerBound, upperBound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return current().nextDouble();
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        current().setSeed(seed);
+    }
+
+    @Override
+    public long getSeed() {
+        return current().getSeed();
+    }
+
+    @Override
+    public String getName() {
+        return "ThreadLocal(" + current().getName() + ")";
+    }
+}